@@ -4,7 +4,11 @@ import com.formdev.flatlaf.FlatDarculaLaf;
 import com.formdev.flatlaf.FlatIntelliJLaf;
 import edu.rit.croatia.swen383.g3.controller.Controller;
 import edu.rit.croatia.swen383.g3.model.*;
+import edu.rit.croatia.swen383.g3.util.CatalogStore;
 import edu.rit.croatia.swen383.g3.util.FileHandler;
+import edu.rit.croatia.swen383.g3.util.PersistenceService;
+import edu.rit.croatia.swen383.g3.util.StartupTimer;
+import edu.rit.croatia.swen383.g3.util.StorageConfig;
 import edu.rit.croatia.swen383.g3.view.View;
 import com.formdev.flatlaf.FlatLightLaf;  // Import FlatLaf
 
@@ -23,6 +27,7 @@ public class Main {
      * @param args the command-line arguments (not used in this application)
      */
     public static void main(String[] args) {
+        StartupTimer.start();
         javax.swing.SwingUtilities.invokeLater(() -> {
             try {
                 // Set up the FlatLaf IntelliJ theme
@@ -32,13 +37,23 @@ public class Main {
             }
 
             // Initialize core components: models, view, and controller
-            FileHandler handler = new FileHandler();
-            Foods foods = new Foods(handler);
-            Logs logs = new Logs(handler);
-            Exercises exercises = new Exercises();
+            StorageConfig storage = StorageConfig.fromSystemProperties(new FileHandler());
+            CatalogStore catalogs = storage.createCatalogStore();
+            Foods foods = new Foods(catalogs);
+            Logs logs = new Logs();
+            Exercises exercises = new Exercises(catalogs);
+
+            // Save on a background writer thread and flush pending writes on exit
+            PersistenceService persistence = new PersistenceService();
+            foods.setPersistenceService(persistence);
+            logs.setPersistenceService(persistence);
+            exercises.setPersistenceService(persistence);
+            Runtime.getRuntime().addShutdownHook(new Thread(persistence::shutdown));
+
             View view = new View();
-            new Controller(foods, logs, exercises, view);
-            view.setVisible(true); // Display the GUI
+            view.setFirstPaintListener(StartupTimer::firstPaint);
+            new Controller(foods, logs, exercises, view, storage);
+            view.setVisible(true); // Display the GUI while the data loads in the background
         });
     }
 }
\ No newline at end of file
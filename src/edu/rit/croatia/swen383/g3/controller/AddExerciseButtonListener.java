@@ -38,19 +38,14 @@ public class AddExerciseButtonListener implements ActionListener {
 
         }
 
-        // check for duplicate
-        boolean exists = controller.getExercises().getAllExercises().stream()
-                .anyMatch(ex -> ex.getName().equalsIgnoreCase(newExercise.getName()));
-
-        if (exists) {
+        // adding new exercises, rejecting duplicates
+        if (!controller.getExercises().addExercise(newExercise)) {
             controller.getView().showMessage("Exercise already exists. Cannot add duplicate.");
             return; // stop if duplicate
 
         }
 
-        // adding new exercises
-        controller.getExercises().addExercise(newExercise);
-        controller.getExercises().saveToFile("assets/data/exercise.csv");
+        controller.getExercises().save();
         controller.getView().updateExerciseList(controller.getExercises().getAllExercises());
         controller.getView().showMessage("New exercise added: " + newExercise.getName());
 
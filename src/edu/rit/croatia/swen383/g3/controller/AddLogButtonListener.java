@@ -53,8 +53,7 @@ public class AddLogButtonListener implements ActionListener {
             controller.getLogs().addExerciseLog(selectedDate, new ExerciseEntry(selectedExercise, minutes));
         }
 
-        // Refresh logs and stats
-        controller.refreshLogsAndStats();
-        controller.getLogs().saveLogsToFile("assets/data/log.csv");
+        // The view is updated by the logs listener as the entry is added
+        controller.getLogs().save();
     }
 }
@@ -44,11 +44,9 @@ public class ChangeDateButtonListener implements ActionListener {
 
         try {
             LocalDate date = LocalDate.parse(input.trim());
-            controller.setCurrentDate(date);
-            controller.getView().updateCurrentDate(date);
 
-            // Refresh everything (logs, stats, weight, goals)
-            controller.refreshLogsAndStats();
+            // Refresh everything (logs, stats, weight, goals), once the date's logs are read
+            controller.showDate(date);
 
         } catch (Exception ex) {
             controller.getView().showMessage("Invalid date format. Use YYYY-MM-DD.");
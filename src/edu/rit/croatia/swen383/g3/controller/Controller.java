@@ -1,10 +1,21 @@
 package edu.rit.croatia.swen383.g3.controller;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import javax.swing.SwingUtilities;
 
 import edu.rit.croatia.swen383.g3.model.*;
+import edu.rit.croatia.swen383.g3.util.FileHandler;
+import edu.rit.croatia.swen383.g3.util.LogJournal;
+import edu.rit.croatia.swen383.g3.util.LogLoadReport;
+import edu.rit.croatia.swen383.g3.util.LogStore;
+import edu.rit.croatia.swen383.g3.util.StartupTimer;
+import edu.rit.croatia.swen383.g3.util.StorageConfig;
 import edu.rit.croatia.swen383.g3.view.View;
 
 /**
@@ -15,42 +26,46 @@ import edu.rit.croatia.swen383.g3.view.View;
  * accordingly.
  */
 public class Controller {
+    /**
+     * Days of history loaded at startup when logs are loaded lazily.
+     */
+    private static final int LAZY_WINDOW_DAYS = 90;
+
+    /**
+     * Older months kept in memory when logs are loaded lazily.
+     */
+    private static final int LAZY_CACHED_MONTHS = 12;
+
     private final Foods foods;
     private final Logs logs;
     private final Exercises exercises;
     private final View view;
     private LocalDate currentDate = LocalDate.now();
+    private boolean loaded;
 
     /**
      * Constructs the Controller with the provided model and view components.
-     * Initializes data loading, sets up event listeners, and prepares the initial
-     * view.
+     * Sets up event listeners and the initial view, and starts loading the data in
+     * the background.
      *
      * @param foods     the Foods model
      * @param logs      the Logs model
      * @param exercises the Exercises model
      * @param view      the GUI view
+     * @param storage   the storage configuration the logs are loaded from
      */
-    public Controller(Foods foods, Logs logs, Exercises exercises, View view) {
+    public Controller(Foods foods, Logs logs, Exercises exercises, View view, StorageConfig storage) {
         this.foods = foods;
         this.logs = logs;
         this.exercises = exercises;
         this.view = view;
 
-        // Load foods and exercises
-        foods.loadFromFile("assets/data/foods.csv");
-        exercises.loadFromFile("assets/data/exercise.csv");
-
-        // Load logs
-        logs.readLogsFromFile("assets/data/log.csv", foods.getAllFoods(), exercises);
-
-        // Initialize the view
-        view.updateFoodList(foods.getAllFoods());
-        view.updateExerciseList(exercises.getAllExercises());
-        view.updateLogList("");
+        // Initialize the view; it shows while the data loads in the background
         view.updateStats(0, 0, 0, 0);
         view.updateWeight(0.0);
         view.updateCalorieGoal(0.0);
+        view.setEditingEnabled(false);
+        view.showProgress("Loading foods and exercises...");
 
         // Add listeners
         view.addChangeDateListener(new ChangeDateButtonListener(this));
@@ -67,52 +82,171 @@ public class Controller {
             LocalDate date = getCurrentDate();
             logs.setWeightForDate(date, weight);
             logs.setCalorieGoalForDate(date, calorieGoal);
-            logs.saveLogsToFile("assets/data/log.csv");
-
-            refreshLogsAndStats();
+            logs.save();
         });
 
         view.addDeleteLogListener(new DeleteLogButtonListener(this));
 
         // Initial date setup
         view.updateCurrentDate(currentDate);
-        refreshLogsAndStats();
+
+        startLoading(storage);
     }
 
     /**
-     * Refreshes the logs, exercise entries, statistics, weight, and calorie goal
-     * displayed in the view
-     * for the current date. Updates food logs, exercise logs with calories burned,
-     * and nutrient stats.
+     * Loads the catalogs and logs on background threads. Foods and exercises load in
+     * parallel with opening the log store, which may first have to create it from
+     * {@code log.csv}. Once all three are ready, the month of the current date is read on
+     * its own so the day can be shown before the full history, which loads alongside it.
+     * Editing stays disabled until everything is loaded.
+     *
+     * @param storage the storage configuration the logs are loaded from
      */
-    public void refreshLogsAndStats() {
-        // Food logs
-        List<Log> todayLogs = logs.getLogForDate(currentDate);
-        StringBuilder logText = new StringBuilder();
-        for (Log log : todayLogs) {
-            logText.append(String.format("[%s] %s\n", currentDate, log.toString()));
+    private void startLoading(StorageConfig storage) {
+        LocalDate date = currentDate;
+
+        CompletableFuture<LogStore> logStore = CompletableFuture.supplyAsync(storage::createLogStore);
+        CompletableFuture<Void> catalogs = CompletableFuture.allOf(
+                CompletableFuture.runAsync(foods::load),
+                CompletableFuture.runAsync(exercises::load));
+        catalogs.thenRun(() -> SwingUtilities.invokeLater(() -> {
+            view.updateFoodList(foods.getAllFoods());
+            view.updateExerciseList(exercises.getAllExercises());
+            view.showProgress("Loading logs...");
+        }));
+        CompletableFuture<LogStore> ready = catalogs.thenCombine(logStore, (ignored, store) -> store);
+
+        ready.thenAcceptAsync(store -> {
+            Logs day = new Logs();
+            store.readMonths(Set.of(YearMonth.from(date)), foods.getAllFoods(), exercises, day);
+            SwingUtilities.invokeLater(() -> {
+                if (!loaded) {
+                    // Weights are not read yet, so calories burned show once the history is in
+                    view.showLogs(date, day.getLogForDate(date), day.getExercisesForDate(date), 0);
+                }
+            });
+        }).exceptionally(error -> null);
+
+        ready.thenAcceptAsync(store -> loadLogs(storage, store))
+                .whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> finishLoading(error)));
+    }
+
+    /**
+     * Loads the logs from the store in the way the system properties select: fully,
+     * fully with a journal, or lazily by month.
+     *
+     * @param storage  the storage configuration
+     * @param logStore the store to load from
+     */
+    private void loadLogs(StorageConfig storage, LogStore logStore) {
+        LogLoadReport report;
+        boolean journaled = Boolean.getBoolean("dietmanager.journal");
+        if (journaled && !StorageConfig.CSV.equals(storage.getBackend())) {
+            System.out.println("Journaled persistence needs the csv storage backend; saving without a journal");
+            journaled = false;
+        }
+        if (journaled) {
+            report = logs.load(logStore, foods.getAllFoods(), exercises);
+            logs.enableJournal(new LogJournal(storage.getLogFile(), new FileHandler()), foods.getAllFoods(),
+                    exercises, report);
+        } else if (Boolean.getBoolean("dietmanager.lazyLogs")) {
+            report = logs.loadRecent(logStore, foods.getAllFoods(), exercises, LAZY_WINDOW_DAYS,
+                    LAZY_CACHED_MONTHS);
+        } else {
+            report = logs.load(logStore, foods.getAllFoods(), exercises);
         }
-        view.updateLogList(logText.toString());
+        if (!report.isEmpty()) {
+            System.out.println(report);
+        }
+    }
 
-        // Exercise logs with detailed formatting
-        List<ExerciseEntry> exerciseLogs = logs.getExercisesForDate(currentDate);
-        StringBuilder exerciseText = new StringBuilder();
-        double weight = logs.getWeightForDate(currentDate); // Needed for calories burned
+    /**
+     * Shows the loaded data and enables editing, or reports why loading failed. Editing
+     * stays disabled after a failure so a save cannot overwrite logs that were not read.
+     *
+     * @param error the failure, or null if everything loaded
+     */
+    private void finishLoading(Throwable error) {
+        loaded = true;
+        view.hideProgress();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            System.out.println("Error loading data: " + cause.getMessage());
+            view.showMessage("Could not load data: " + cause.getMessage());
+            return;
+        }
+        logs.addLogsListener(new LogsChangeListener(this));
+        refreshLogsAndStats();
+        view.setEditingEnabled(true);
+        StartupTimer.interactive();
+    }
+
+    /**
+     * Makes a date the current one and shows it. When logs are loaded lazily and the date's
+     * month is not in memory, the month is read on a background thread first, with editing
+     * disabled and the progress bar showing, so the event thread never waits for the disk.
+     *
+     * @param date the date to show
+     */
+    public void showDate(LocalDate date) {
+        if (logs.isInMemory(date)) {
+            currentDate = date;
+            view.updateCurrentDate(date);
+            refreshLogsAndStats();
+            return;
+        }
+        view.setEditingEnabled(false);
+        view.showProgress("Loading " + YearMonth.from(date) + "...");
+        CompletableFuture.runAsync(() -> logs.pageInMonthOf(date))
+                .whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> finishPageIn(date, error)));
+    }
 
-        for (ExerciseEntry entry : exerciseLogs) {
-            double caloriesBurned = entry.calculateCaloriesBurned(weight);
-            exerciseText.append(String.format("[%s] %s — %.0f min — %.0f cal burned\n",
-                    currentDate, entry.getExercise().getName(), entry.getMinutes(), caloriesBurned));
+    /**
+     * Shows a date once its month is read, or keeps the current date if reading failed,
+     * and enables editing again.
+     *
+     * @param date  the date being shown
+     * @param error the failure, or null if the month was read
+     */
+    private void finishPageIn(LocalDate date, Throwable error) {
+        view.hideProgress();
+        view.setEditingEnabled(true);
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            System.out.println("Error loading logs for " + date + ": " + cause.getMessage());
+            view.showMessage("Could not load logs for " + date + ": " + cause.getMessage());
+            return;
         }
+        currentDate = date;
+        view.updateCurrentDate(date);
+        refreshLogsAndStats();
+    }
 
-        view.updateExerciseLogList(exerciseText.toString());
+    /**
+     * Refreshes the logs, exercise entries, statistics, weight, and calorie goal
+     * displayed in the view for the current date. Used when the date changes; edits to
+     * the shown date reach the view row by row through {@link LogsChangeListener}.
+     */
+    public void refreshLogsAndStats() {
+        view.showLogs(currentDate, logs.getLogForDate(currentDate), logs.getExercisesForDate(currentDate),
+                logs.getWeightForDate(currentDate));
+        refreshStats();
+    }
 
-        // Stats
-        double calories = logs.getTotalCaloriesForDate(currentDate);
-        double fat = logs.getTotalFatForDate(currentDate);
-        double carbs = logs.getTotalCarbsForDate(currentDate);
-        double protein = logs.getTotalProteinForDate(currentDate);
+    /**
+     * Refreshes the statistics, weight, and calorie goal displayed for the current
+     * date, without touching the log lists.
+     */
+    public void refreshStats() {
+        DailyTotals totals = logs.getTotalsForDate(currentDate);
+        double calories = totals.calories();
+        double fat = totals.fat();
+        double carbs = totals.carbs();
+        double protein = totals.protein();
 
+        double weight = logs.getWeightForDate(currentDate); // Needed for calories burned
         double caloriesBurnedTotal = Math.round(logs.getTotalCaloriesBurnedForDate(currentDate, weight));
         double netCalories = calories - caloriesBurnedTotal;
         double calorieGoal = logs.getCalorieGoalForDate(currentDate);
@@ -122,6 +256,7 @@ public class Controller {
                 protein);
 
         // Weight and calorie goal display
+        view.setBurnWeight(weight);
         view.updateWeight(weight);
         view.updateCalorieGoal(calorieGoal);
     }
@@ -12,7 +12,8 @@ import java.time.LocalDate;
  * Handles the delete log button action.
  * Allows the user to delete either a food log or an exercise log entry for the
  * current date.
- * After deletion, updates the logs, saves changes, and refreshes the view.
+ * After deletion, updates the logs and saves changes; the view follows through
+ * {@link LogsChangeListener}.
  */
 public class DeleteLogButtonListener implements ActionListener {
     private final Controller controller;
@@ -29,8 +30,7 @@ public class DeleteLogButtonListener implements ActionListener {
     /**
      * Invoked when the delete log button is clicked.
      * Checks if a food log or an exercise log entry is selected in the view.
-     * Deletes the selected entry for the current date, saves the updated logs, and
-     * refreshes the view.
+     * Deletes the selected entry for the current date and saves the updated logs.
      *
      * @param e the action event triggered by clicking the button
      */
@@ -40,33 +40,18 @@ public class DeleteLogButtonListener implements ActionListener {
         LocalDate currentDate = controller.getCurrentDate();
 
         // check if a food log entry is selected
-        String selectedFoodLog = view.getSelectedFoodLog();
-        if (selectedFoodLog != null) {
-            Log logToRemove = controller.getLogs().getLogForDate(currentDate).stream()
-                    .filter(log -> selectedFoodLog.endsWith(log.toString())).findFirst().orElse(null);
-
-            if (logToRemove != null) {
-                controller.getLogs().getAllLogs().remove(logToRemove);
-                controller.getLogs().saveLogsToFile("assets/data/log.csv");
-                controller.refreshLogsAndStats();
-                return;
-
-            }
+        Log logToRemove = view.getSelectedFoodLog();
+        if (logToRemove != null) {
+            controller.getLogs().removeLog(logToRemove);
+            controller.getLogs().save();
+            return;
         }
 
         // check if an exercise log entry is selected
-        String selectedExerciseLog = view.getSelectedExerciseLog();
-        if (selectedExerciseLog != null) {
-            ExerciseEntry entryToRemove = controller.getLogs().getExercisesForDate(currentDate).stream()
-                    .filter(entry -> selectedExerciseLog.contains(entry.getExercise().getName())
-                            && selectedExerciseLog.contains(String.format("%.0f min", entry.getMinutes())))
-                    .findFirst().orElse(null);
-            if (entryToRemove != null) {
-                controller.getLogs().getExercisesForDate(currentDate).remove(entryToRemove);
-                controller.getLogs().saveLogsToFile("assets/data/log.csv");
-                controller.refreshLogsAndStats();
-
-            }
+        ExerciseEntry entryToRemove = view.getSelectedExerciseLog();
+        if (entryToRemove != null) {
+            controller.getLogs().removeExerciseLog(currentDate, entryToRemove);
+            controller.getLogs().save();
         }
     }
 
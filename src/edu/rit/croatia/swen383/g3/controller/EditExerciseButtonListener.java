@@ -73,10 +73,9 @@ public class EditExerciseButtonListener implements ActionListener {
 
             try {
                 double newCalories = Double.parseDouble(calStr);
-                Exercise selectedExercise = exercises.findExerciseByName(selectedName);
-                if (selectedExercise != null) {
-                    selectedExercise.setCaloriesPerKgPerHour(newCalories);
-                    exercises.saveToFile("assets/data/exercise.csv");
+                Exercise updatedExercise = exercises.updateExercise(selectedName, newCalories);
+                if (updatedExercise != null) {
+                    exercises.save();
                     controller.getView().showMessage("Exercise updated successfully.");
                     controller.getView().updateExerciseList(exercises.getAllExercises());
                 }
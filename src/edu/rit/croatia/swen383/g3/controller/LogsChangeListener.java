@@ -0,0 +1,97 @@
+package edu.rit.croatia.swen383.g3.controller;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.time.LocalDate;
+import javax.swing.SwingUtilities;
+
+/**
+ * Applies changes to the logs to the view as they happen.
+ * Only changes to the date shown touch the log lists, and then only the affected row;
+ * the day's statistics are recomputed from the running totals in {@link Logs}.
+ */
+public class LogsChangeListener implements LogsListener {
+    private final Controller controller;
+
+    /**
+     * Constructs the listener with a reference to the controller.
+     *
+     * @param controller the Controller coordinating between model and view
+     */
+    public LogsChangeListener(Controller controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void foodLogAdded(Log log, int index) {
+        onEventThread(() -> {
+            if (isShown(log.getDate())) {
+                controller.getView().addFoodLog(index, log);
+                controller.refreshStats();
+            }
+        });
+    }
+
+    @Override
+    public void foodLogRemoved(Log log, int index) {
+        onEventThread(() -> {
+            if (isShown(log.getDate())) {
+                controller.getView().removeFoodLog(index);
+                controller.refreshStats();
+            }
+        });
+    }
+
+    @Override
+    public void exerciseLogAdded(LocalDate date, ExerciseEntry entry, int index) {
+        onEventThread(() -> {
+            if (isShown(date)) {
+                controller.getView().addExerciseLog(index, entry);
+                controller.refreshStats();
+            }
+        });
+    }
+
+    @Override
+    public void exerciseLogRemoved(LocalDate date, ExerciseEntry entry, int index) {
+        onEventThread(() -> {
+            if (isShown(date)) {
+                controller.getView().removeExerciseLog(index);
+                controller.refreshStats();
+            }
+        });
+    }
+
+    @Override
+    public void weightUpdated(LocalDate date, double weight) {
+        onEventThread(() -> {
+            if (!date.isAfter(controller.getCurrentDate())) {
+                controller.refreshStats();
+            }
+        });
+    }
+
+    @Override
+    public void calorieGoalUpdated(LocalDate date, double goal) {
+        onEventThread(() -> {
+            if (!date.isAfter(controller.getCurrentDate())) {
+                controller.refreshStats();
+            }
+        });
+    }
+
+    private boolean isShown(LocalDate date) {
+        return date.equals(controller.getCurrentDate());
+    }
+
+    /**
+     * Runs an update on the event dispatch thread, in the order the changes were made.
+     */
+    private static void onEventThread(Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.rit.croatia.swen383.g3.model;
+
+/**
+ * Immutable summary of the calories and macronutrients consumed on a single day.
+ * {@link Logs} keeps one of these per date and updates it whenever a food log
+ * is added or removed, so the stats panel can read all totals at once.
+ *
+ * @param calories total calories consumed
+ * @param fat      total fat consumed in grams
+ * @param carbs    total carbohydrates consumed in grams
+ * @param protein  total protein consumed in grams
+ */
+public record DailyTotals(double calories, double fat, double carbs, double protein) {
+
+    /**
+     * Totals for a day with no food logs.
+     */
+    public static final DailyTotals ZERO = new DailyTotals(0, 0, 0, 0);
+
+    /**
+     * Returns new totals with the given food log added.
+     *
+     * @param log the food log to add
+     * @return the updated totals
+     */
+    public DailyTotals plus(Log log) {
+        return new DailyTotals(calories + log.getTotalCalories(),
+                fat + log.getTotalFat(),
+                carbs + log.getTotalCarbs(),
+                protein + log.getTotalProtein());
+    }
+
+    /**
+     * Sums the totals of the given food logs.
+     *
+     * @param logs the food logs to sum
+     * @return the combined totals
+     */
+    public static DailyTotals of(Iterable<Log> logs) {
+        DailyTotals totals = ZERO;
+        for (Log log : logs) {
+            totals = totals.plus(log);
+        }
+        return totals;
+    }
+}
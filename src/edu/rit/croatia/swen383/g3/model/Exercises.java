@@ -1,22 +1,46 @@
 package edu.rit.croatia.swen383.g3.model;
 
-import java.io.*;
+import edu.rit.croatia.swen383.g3.util.CatalogStore;
+import edu.rit.croatia.swen383.g3.util.Names;
+import edu.rit.croatia.swen383.g3.util.PersistenceService;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages a collection of Exercise objects.
  * Provides functionality to add exercises, retrieve them, and load/save
- * exercises from/to a CSV file.
+ * exercises from/to a catalog store.
+ * Exercises are indexed by case-folded name, so duplicate checks and lookups
+ * do not scan the list.
  */
 public class Exercises {
     private List<Exercise> exercises;
+    private final Map<String, Exercise> nameIndex = new HashMap<>();
+    private final CatalogStore store;
+    private PersistenceService persistence;
+    private final List<ExercisesListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
-     * Constructs an empty Exercises list.
+     * Constructs an empty Exercises list that is not backed by a store.
      */
     public Exercises() {
+        this(null);
+    }
+
+    /**
+     * Constructs an empty Exercises list using the provided store for persistence.
+     *
+     * @param store the store to read and write exercise data, or null for none
+     */
+    public Exercises(CatalogStore store) {
         this.exercises = new ArrayList<>();
+        this.store = store;
     }
 
     /**
@@ -24,70 +48,134 @@ public class Exercises {
      * name check).
      *
      * @param ex the Exercise to add
+     * @return true if the exercise was added, false if one with the same name exists
      */
-    public void addExercise(Exercise ex) {
+    public synchronized boolean addExercise(Exercise ex) {
         // Ensure no duplicates by name (case-insensitive)
-        for (Exercise e : exercises) {
-            if (e.getName().equalsIgnoreCase(ex.getName())) {
-                return; // Do not add duplicate
-            }
+        if (nameIndex.putIfAbsent(Names.fold(ex.getName()), ex) != null) {
+            return false; // Do not add duplicate
         }
         exercises.add(ex);
+        return true;
     }
 
     /**
-     * Returns the list of all stored Exercise objects.
+     * Adds several exercises in one pass, skipping any whose name (case-insensitive)
+     * already exists or appears earlier in the given collection.
      *
-     * @return a list of exercises
+     * @param toAdd the exercises to add
+     * @return the number of exercises actually added
      */
-    public List<Exercise> getAllExercises() {
-        return exercises;
+    public synchronized int addAll(Collection<Exercise> toAdd) {
+        int added = 0;
+        for (Exercise ex : toAdd) {
+            if (addExercise(ex)) {
+                added++;
+            }
+        }
+        return added;
     }
 
     /**
-     * Loads exercises from a CSV file into the exercises list.
-     * Clears any existing exercises before loading.
-     *
-     * CSV format: e,exerciseName,caloriesPerKgPerHour
+     * Updates the calories burned per kilogram per hour of an existing exercise,
+     * then notifies the registered listeners.
      *
-     * @param filename the path to the exercise CSV file
+     * @param name                 the name of the exercise to update (case-insensitive)
+     * @param caloriesPerKgPerHour the new calorie burn rate
+     * @return the updated Exercise, or null if no exercise has that name
      */
-    public void loadFromFile(String filename) {
-        exercises.clear();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("e,")) {
-                    String[] parts = line.split(",");
-                    if (parts.length == 3) {
-                        String name = parts[1];
-                        double cal = Double.parseDouble(parts[2]);
-                        exercises.add(new Exercise(name, cal));
-                    }
-                }
+    public Exercise updateExercise(String name, double caloriesPerKgPerHour) {
+        Exercise ex;
+        synchronized (this) {
+            ex = findExerciseByName(name);
+            if (ex == null) {
+                return null;
             }
-        } catch (IOException e) {
-            System.out.println("Error loading exercises: " + e.getMessage());
+            ex.setCaloriesPerKgPerHour(caloriesPerKgPerHour);
+        }
+        // Outside the lock: listeners such as Logs take their own lock, and Logs looks up
+        // exercises while holding it
+        for (ExercisesListener listener : listeners) {
+            listener.exerciseUpdated(ex);
         }
+        return ex;
     }
 
     /**
-     * Saves the current list of exercises to a CSV file.
+     * Registers a listener to be told when an exercise in this catalog changes.
      *
-     * CSV format: e,exerciseName,caloriesPerKgPerHour
+     * @param listener the listener to add
+     */
+    public void addExercisesListener(ExercisesListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addExercisesListener(ExercisesListener)}.
      *
-     * @param filename the path to the exercise CSV file
+     * @param listener the listener to remove
      */
-    public void saveToFile(String filename) {
-        try (PrintWriter writer = new PrintWriter(filename)) {
-            for (Exercise e : exercises) {
-                writer.println("e," + e.getName() + "," + e.getCaloriesPerKgPerHour());
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving exercises: " + e.getMessage());
+    public void removeExercisesListener(ExercisesListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the list of all stored Exercise objects.
+     * Use {@link #addExercise(Exercise)} to add to it so the name index stays in step.
+     *
+     * @return a read-only list of exercises
+     */
+    public List<Exercise> getAllExercises() {
+        return Collections.unmodifiableList(exercises);
+    }
+
+    /**
+     * Loads exercises from the store into the exercises list.
+     * Clears any existing exercises before loading. Duplicate names are skipped.
+     */
+    public synchronized void load() {
+        exercises.clear();
+        nameIndex.clear();
+        addAll(requireStore().readExercises());
+    }
+
+    /**
+     * Saves the current list of exercises to the store.
+     */
+    public void save() {
+        CatalogStore target = requireStore();
+        if (persistence != null) {
+            persistence.markDirty(target.getExercisesLocation(), () -> {
+                List<Exercise> snapshot = snapshot();
+                return () -> target.writeExercises(snapshot);
+            });
+        } else {
+            target.writeExercises(snapshot());
         }
     }
 
+    /**
+     * Saves through the given service on its writer thread instead of on the caller's thread.
+     *
+     * @param persistence the persistence service to use
+     */
+    public void setPersistenceService(PersistenceService persistence) {
+        this.persistence = persistence;
+    }
+
+    private synchronized List<Exercise> snapshot() {
+        return new ArrayList<>(exercises);
+    }
+
+    private CatalogStore requireStore() {
+        if (store == null) {
+            throw new IllegalStateException("Exercises are not backed by a store");
+        }
+        return store;
+    }
+
     /**
      * Finds an exercise by its name (case-insensitive).
      *
@@ -95,12 +183,7 @@ public class Exercises {
      * @return the Exercise object if found, or null if not found
      */
     public Exercise findExerciseByName(String name) {
-        for (Exercise e : exercises) {
-            if (e.getName().equalsIgnoreCase(name)) {
-                return e;
-            }
-        }
-        return null;
+        return nameIndex.get(Names.fold(name));
     }
 
 }
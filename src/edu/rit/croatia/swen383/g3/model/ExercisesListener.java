@@ -0,0 +1,19 @@
+package edu.rit.croatia.swen383.g3.model;
+
+/**
+ * Receives changes to exercises already in an {@link Exercises} catalog, so anything
+ * derived from their calorie rates can be brought up to date.
+ * <p>
+ * Events are delivered on the thread that made the change, after the catalog's lock is
+ * released.
+ */
+@FunctionalInterface
+public interface ExercisesListener {
+
+    /**
+     * Called after an exercise in the catalog was changed in place.
+     *
+     * @param exercise the changed exercise
+     */
+    void exerciseUpdated(Exercise exercise);
+}
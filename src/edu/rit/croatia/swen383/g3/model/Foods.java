@@ -1,54 +1,97 @@
 package edu.rit.croatia.swen383.g3.model;
 
-import edu.rit.croatia.swen383.g3.util.FileHandler;
+import edu.rit.croatia.swen383.g3.util.CatalogStore;
+import edu.rit.croatia.swen383.g3.util.Names;
+import edu.rit.croatia.swen383.g3.util.PersistenceService;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * Manages a list of all foods (basic and recipes) in the application.
  * Responsible for loading, saving, and adding food items.
+ * Foods are indexed by case-folded name for exact and prefix lookups.
  */
 public class Foods {
     private List<Food> foodList;
-    private final FileHandler fileHandler;
+    private final CatalogStore store;
+    private final Map<String, Food> nameIndex = new HashMap<>();
+    private final NavigableMap<String, Food> prefixIndex = new TreeMap<>();
+    private PersistenceService persistence;
 
     /**
-     * Constructs a Foods model using the provided FileHandler for persistence.
+     * Constructs a Foods model using the provided store for persistence.
      *
-     * @param fileHandler the FileHandler to use for reading/writing food data
+     * @param store the store to read and write food data
      */
-    public Foods(FileHandler fileHandler) {
-        this.fileHandler = fileHandler;
+    public Foods(CatalogStore store) {
+        this.store = store;
         this.foodList = new ArrayList<>();
     }
 
     /**
-     * Loads food data from a file and populates the food list.
+     * Loads food data from the store and populates the food list.
+     */
+    public synchronized void load() {
+        foodList = store.readFoods();
+        nameIndex.clear();
+        prefixIndex.clear();
+        for (Food food : foodList) {
+            index(food);
+        }
+    }
+
+    /**
+     * Adds a food to the name indexes. If several foods share a name,
+     * the first one keeps the entry, matching the order of the food list.
      *
-     * @param filename the CSV file path
+     * @param food the food to index
      */
-    public void loadFromFile(String filename) {
-        foodList = fileHandler.readFoods(filename);
+    private void index(Food food) {
+        String key = Names.fold(food.getName());
+        nameIndex.putIfAbsent(key, food);
+        prefixIndex.putIfAbsent(key, food);
     }
 
     /**
-     * Saves current food list to file.
+     * Saves current food list to the store.
+     */
+    public void save() {
+        if (persistence != null) {
+            persistence.markDirty(store.getFoodsLocation(), () -> {
+                List<Food> snapshot;
+                synchronized (this) {
+                    snapshot = new ArrayList<>(foodList);
+                }
+                return () -> store.writeFoods(snapshot);
+            });
+        } else {
+            store.writeFoods(foodList);
+        }
+    }
+
+    /**
+     * Saves through the given service on its writer thread instead of on the caller's thread.
      *
-     * @param filename the destination CSV file
+     * @param persistence the persistence service to use
      */
-    public void saveToFile(String filename) {
-        fileHandler.writeFoods(foodList, filename);
+    public void setPersistenceService(PersistenceService persistence) {
+        this.persistence = persistence;
     }
 
     /**
-     * Adds a new food item and immediately saves to file.
+     * Adds a new food item and immediately saves to the store.
      *
      * @param food the food to add
      */
-    public void addFood(Food food) {
+    public synchronized void addFood(Food food) {
         foodList.add(food);
-        saveToFile("assets/data/foods.csv");
+        index(food);
+        save();
     }
 
     /**
@@ -67,11 +110,26 @@ public class Foods {
      * @return the matching Food or null if not found
      */
     public Food findFoodByName(String name) {
-        for (Food food : foodList) {
-            if (food.getName().equalsIgnoreCase(name)) {
-                return food;
+        return nameIndex.get(Names.fold(name));
+    }
+
+    /**
+     * Finds foods whose name starts with the given prefix (case-insensitive),
+     * in alphabetical order. Intended for search-as-you-type in selection dialogs.
+     *
+     * @param prefix the prefix to search for
+     * @param limit  the maximum number of foods to return
+     * @return the matching foods, at most {@code limit} of them
+     */
+    public List<Food> searchByPrefix(String prefix, int limit) {
+        String key = Names.fold(prefix);
+        List<Food> matches = new ArrayList<>();
+        for (Food food : prefixIndex.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            if (matches.size() >= limit) {
+                break;
             }
+            matches.add(food);
         }
-        return null;
+        return matches;
     }
 }
\ No newline at end of file
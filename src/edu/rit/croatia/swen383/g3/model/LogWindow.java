@@ -0,0 +1,138 @@
+package edu.rit.croatia.swen383.g3.model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Tracks which months of food and exercise logs {@link Logs} holds in memory when it
+ * loads history lazily.
+ * <p>
+ * Pinned months (the recent window and any month changed this session) always stay loaded.
+ * Other months are paged in on demand and kept in least-recently-used order; once more
+ * than the cache capacity are loaded, the oldest are evicted.
+ */
+class LogWindow {
+    private final List<Food> foods;
+    private final Exercises exercises;
+    private final int capacity;
+    private final Set<YearMonth> pinned = new HashSet<>();
+    private final LinkedHashMap<YearMonth, Boolean> cold = new LinkedHashMap<>(16, 0.75f, true);
+    private final NavigableSet<YearMonth> stored = new ConcurrentSkipListSet<>();
+
+    /**
+     * Creates a window over a log store.
+     *
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param capacity  the number of months outside the pinned ones to keep loaded
+     */
+    LogWindow(List<Food> foods, Exercises exercises, int capacity) {
+        this.foods = foods;
+        this.exercises = exercises;
+        this.capacity = capacity;
+    }
+
+    List<Food> getFoods() {
+        return foods;
+    }
+
+    Exercises getExercises() {
+        return exercises;
+    }
+
+    /**
+     * Records that the store has food or exercise entries in a month.
+     * Safe to call from several loader threads.
+     *
+     * @param month the month
+     */
+    void stored(YearMonth month) {
+        stored.add(month);
+    }
+
+    /**
+     * Returns the months that have food or exercise entries, in ascending order.
+     *
+     * @return the months with entries
+     */
+    NavigableSet<YearMonth> storedMonths() {
+        return stored;
+    }
+
+    /**
+     * Checks whether a month has entries that are not in memory, and marks it as recently
+     * used if it is loaded.
+     *
+     * @param month the month
+     * @return true if the month must be paged in
+     */
+    boolean needsPageIn(YearMonth month) {
+        return stored.contains(month) && !pinned.contains(month) && cold.get(month) == null;
+    }
+
+    /**
+     * Keeps a month loaded for the rest of the session.
+     *
+     * @param month the month
+     */
+    void pin(YearMonth month) {
+        cold.remove(month);
+        pinned.add(month);
+        stored.add(month);
+    }
+
+    /**
+     * Records that a month was paged in.
+     *
+     * @param month the month
+     */
+    void pagedIn(YearMonth month) {
+        if (!pinned.contains(month)) {
+            cold.put(month, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Removes the least recently used months beyond the cache capacity.
+     *
+     * @return the months to evict from memory
+     */
+    List<YearMonth> takeEvictions() {
+        List<YearMonth> evicted = new ArrayList<>();
+        Iterator<YearMonth> it = cold.keySet().iterator();
+        while (cold.size() - evicted.size() > capacity && it.hasNext()) {
+            evicted.add(it.next());
+        }
+        for (YearMonth month : evicted) {
+            cold.remove(month);
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns every month currently held in memory.
+     *
+     * @return a copy of the loaded months
+     */
+    Set<YearMonth> residentMonths() {
+        Set<YearMonth> resident = new HashSet<>(pinned);
+        resident.addAll(cold.keySet());
+        return resident;
+    }
+
+    /**
+     * Returns the number of months the cache keeps besides the pinned ones.
+     *
+     * @return the cache capacity
+     */
+    int getCapacity() {
+        return capacity;
+    }
+}
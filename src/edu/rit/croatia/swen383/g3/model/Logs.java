@@ -1,36 +1,109 @@
 package edu.rit.croatia.swen383.g3.model;
 
-import edu.rit.croatia.swen383.g3.util.FileHandler;
+import edu.rit.croatia.swen383.g3.util.CsvLogStore;
+import edu.rit.croatia.swen383.g3.util.LogJournal;
+import edu.rit.croatia.swen383.g3.util.LogLoadReport;
+import edu.rit.croatia.swen383.g3.util.LogStore;
+import edu.rit.croatia.swen383.g3.util.PersistenceService;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages food logs, exercise logs, weight logs, and calorie goal logs.
+ * Food logs are indexed by date so that looking up a single day does not
+ * require scanning the whole history.
+ * Changes are made while holding the lock on this object so a background
+ * writer can take a consistent snapshot.
+ * <p>
+ * Logs are read from and saved to a {@link LogStore}, which decides the file format.
+ * The months changed since the last save are passed to the store, so stores that keep
+ * months apart can write only those.
+ * When loaded with {@link #loadRecent}, only recent food and exercise entries are kept
+ * in memory and older months are read from the store when a query or change touches
+ * them; see {@link LogWindow}. {@link #pageInMonthOf} reads a month ahead of time, so a
+ * caller on the event thread can have it read elsewhere first.
  */
 public class Logs {
-    private List<Log> logEntries;
-    private final FileHandler fileHandler;
+    private final NavigableMap<LocalDate, List<Log>> logsByDate = new TreeMap<>();
+    private final Map<LocalDate, DailyTotals> dailyTotals = new HashMap<>();
+    private final RangeTotalsIndex rangeTotals = new RangeTotalsIndex(this);
+    private LogJournal journal;
+    private PersistenceService persistence;
+    private volatile LogWindow window;
+    private boolean pagingIn;
+    private LogStore store;
+    private final Set<YearMonth> changedMonths = new HashSet<>();
+    private boolean seriesChanged;
+    private final List<LogsListener> listeners = new CopyOnWriteArrayList<>();
+    private final ExercisesListener exerciseRates = exercise -> exerciseUpdated();
 
-    private Map<LocalDate, List<ExerciseEntry>> exerciseLogs = new HashMap<>();
-    private Map<LocalDate, Double> weightLogs = new HashMap<>();
-    private Map<LocalDate, Double> calorieGoalLogs = new HashMap<>();
+    private final NavigableMap<LocalDate, List<ExerciseEntry>> exerciseLogs = new TreeMap<>();
+    private final NavigableMap<LocalDate, Double> weightLogs = new TreeMap<>();
+    private final NavigableMap<LocalDate, Double> calorieGoalLogs = new TreeMap<>();
+
+    private static final double DEFAULT_WEIGHT = 68.0;
+    private static final double DEFAULT_CALORIE_GOAL = 2000.0;
 
     /**
-     * Constructor for Logs.
-     * @param fileHandler Handler for reading and writing files.
+     * Constructor for Logs. The logs stay empty until loaded from a store.
      */
-    public Logs(FileHandler fileHandler) {
-        this.fileHandler = fileHandler;
-        this.logEntries = new ArrayList<>();
+    public Logs() {
     }
 
     /**
      * Adds a food log entry.
      * @param log The food log entry to add.
      */
-    public void addLog(Log log) {
-        logEntries.add(log);
+    public synchronized void addLog(Log log) {
+        touch(log.getDate());
+        List<Log> dayLogs = logsByDate.computeIfAbsent(log.getDate(), d -> new ArrayList<>());
+        dayLogs.add(log);
+        dailyTotals.merge(log.getDate(), DailyTotals.ZERO.plus(log), (old, ignored) -> old.plus(log));
+        indexChanged(log.getDate());
+        monthChanged(log.getDate());
+        if (journal != null) {
+            journal.foodAdded(log);
+        }
+        if (!pagingIn) {
+            for (LogsListener listener : listeners) {
+                listener.foodLogAdded(log, dayLogs.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Removes a food log entry.
+     * @param log The food log entry to remove.
+     * @return true if the entry was found and removed.
+     */
+    public synchronized boolean removeLog(Log log) {
+        touch(log.getDate());
+        List<Log> dayLogs = logsByDate.get(log.getDate());
+        int index = dayLogs == null ? -1 : dayLogs.indexOf(log);
+        if (index < 0) {
+            return false;
+        }
+        dayLogs.remove(index);
+        if (dayLogs.isEmpty()) {
+            logsByDate.remove(log.getDate());
+            dailyTotals.remove(log.getDate());
+        } else {
+            // Re-sum the remaining entries rather than subtracting to avoid rounding drift
+            dailyTotals.put(log.getDate(), DailyTotals.of(dayLogs));
+        }
+        rangeTotals.dayChanged(log.getDate());
+        monthChanged(log.getDate());
+        if (journal != null) {
+            journal.foodRemoved(log);
+        }
+        for (LogsListener listener : listeners) {
+            listener.foodLogRemoved(log, index);
+        }
+        return true;
     }
 
     /**
@@ -38,32 +111,137 @@ public class Logs {
      * @param date The date of the exercise.
      * @param entry The exercise entry.
      */
-    public void addExerciseLog(LocalDate date, ExerciseEntry entry) {
-        exerciseLogs.computeIfAbsent(date, d -> new ArrayList<>()).add(entry);
+    public synchronized void addExerciseLog(LocalDate date, ExerciseEntry entry) {
+        touch(date);
+        List<ExerciseEntry> dayEntries = exerciseLogs.computeIfAbsent(date, d -> new ArrayList<>());
+        dayEntries.add(entry);
+        indexChanged(date);
+        monthChanged(date);
+        if (journal != null) {
+            journal.exerciseAdded(date, entry);
+        }
+        if (!pagingIn) {
+            for (LogsListener listener : listeners) {
+                listener.exerciseLogAdded(date, entry, dayEntries.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Removes an exercise log entry from a specific date.
+     * @param date The date of the exercise.
+     * @param entry The exercise entry to remove.
+     * @return true if the entry was found and removed.
+     */
+    public synchronized boolean removeExerciseLog(LocalDate date, ExerciseEntry entry) {
+        touch(date);
+        List<ExerciseEntry> dayEntries = exerciseLogs.get(date);
+        int index = dayEntries == null ? -1 : dayEntries.indexOf(entry);
+        if (index < 0) {
+            return false;
+        }
+        dayEntries.remove(index);
+        if (dayEntries.isEmpty()) {
+            exerciseLogs.remove(date);
+        }
+        rangeTotals.dayChanged(date);
+        monthChanged(date);
+        if (journal != null) {
+            journal.exerciseRemoved(date, entry);
+        }
+        for (LogsListener listener : listeners) {
+            listener.exerciseLogRemoved(date, entry, index);
+        }
+        return true;
     }
 
     /**
      * Retrieves all food logs for a specific date.
      * @param date The date to retrieve logs for.
-     * @return List of food logs for the date.
+     * @return Read-only view of the food logs for the date.
      */
     public List<Log> getLogForDate(LocalDate date) {
-        List<Log> result = new ArrayList<>();
-        for (Log l : logEntries) {
-            if (l.getDate().equals(date)) {
-                result.add(l);
-            }
-        }
-        return result;
+        pageInIfNeeded(date);
+        List<Log> dayLogs = logsByDate.get(date);
+        return dayLogs == null ? Collections.emptyList() : Collections.unmodifiableList(dayLogs);
+    }
+
+    /**
+     * Retrieves all dates with food logs, in ascending order.
+     * When loaded lazily, only dates in months held in memory are included.
+     * @return Set of dates.
+     */
+    public NavigableSet<LocalDate> getAllLogDates() {
+        return Collections.unmodifiableNavigableSet(logsByDate.navigableKeySet());
     }
 
     /**
      * Retrieves all exercise entries for a specific date.
      * @param date The date to retrieve exercises for.
-     * @return List of exercise entries.
+     * @return Read-only view of the exercise entries for the date.
      */
     public List<ExerciseEntry> getExercisesForDate(LocalDate date) {
-        return exerciseLogs.getOrDefault(date, new ArrayList<>());
+        pageInIfNeeded(date);
+        List<ExerciseEntry> dayEntries = exerciseLogs.get(date);
+        return dayEntries == null ? Collections.emptyList() : Collections.unmodifiableList(dayEntries);
+    }
+
+    /**
+     * Retrieves the calorie and macronutrient totals for a specific date.
+     * @param date The date to retrieve totals for.
+     * @return Totals for the date, or {@link DailyTotals#ZERO} if nothing was logged.
+     */
+    public DailyTotals getTotalsForDate(LocalDate date) {
+        pageInIfNeeded(date);
+        return dailyTotals.getOrDefault(date, DailyTotals.ZERO);
+    }
+
+    /**
+     * Sums calories consumed, calories burned and macronutrients over a date range.
+     * Calories burned use the weight in effect on each day.
+     * @param from The first date of the range (inclusive).
+     * @param to The last date of the range (inclusive).
+     * @return Totals for the range.
+     */
+    public synchronized RangeTotals getTotalsForRange(LocalDate from, LocalDate to) {
+        if (window != null) {
+            return sumPagingIn(from, to);
+        }
+        return rangeTotals.sum(from, to);
+    }
+
+    /**
+     * Sums a range when loaded lazily. Months whose entries are needed to rebuild stale
+     * range sums are paged in at most a cache's worth at a time, so the sums are correct
+     * without holding the whole range in memory.
+     * @param from The first date of the range (inclusive).
+     * @param to The last date of the range (inclusive).
+     * @return Totals for the range.
+     */
+    private synchronized RangeTotals sumPagingIn(LocalDate from, LocalDate to) {
+        YearMonth lastMonth = YearMonth.from(to);
+        LocalDate stale = rangeTotals.firstStaleDay();
+        while (stale != null && !stale.isAfter(to)) {
+            Set<YearMonth> batch = new HashSet<>();
+            LocalDate through = to;
+            for (YearMonth month : window.storedMonths().tailSet(YearMonth.from(stale), true)) {
+                if (month.isAfter(lastMonth)) {
+                    break;
+                }
+                if (window.needsPageIn(month)) {
+                    if (batch.size() == window.getCapacity()) {
+                        through = month.atDay(1).minusDays(1);
+                        break;
+                    }
+                    batch.add(month);
+                }
+            }
+            pageIn(batch);
+            rangeTotals.validateThrough(through);
+            evictColdMonths();
+            stale = rangeTotals.firstStaleDay();
+        }
+        return rangeTotals.sum(from, to);
     }
 
     /**
@@ -72,9 +250,7 @@ public class Logs {
      * @return Total calories consumed.
      */
     public double getTotalCaloriesForDate(LocalDate date) {
-        return getLogForDate(date).stream()
-                .mapToDouble(Log::getTotalCalories)
-                .sum();
+        return getTotalsForDate(date).calories();
     }
 
     /**
@@ -94,8 +270,16 @@ public class Logs {
      * @param date The date.
      * @param weight The weight to set.
      */
-    public void setWeightForDate(LocalDate date, double weight) {
+    public synchronized void setWeightForDate(LocalDate date, double weight) {
         weightLogs.put(date, weight);
+        rangeTotals.weightChanged(date, weightLogs.higherKey(date));
+        seriesChanged |= store != null;
+        if (journal != null) {
+            journal.weightSet(date, weight);
+        }
+        for (LogsListener listener : listeners) {
+            listener.weightUpdated(date, weight);
+        }
     }
 
     /**
@@ -112,8 +296,15 @@ public class Logs {
      * @param date The date.
      * @param goal The calorie goal.
      */
-    public void setCalorieGoalForDate(LocalDate date, double goal) {
+    public synchronized void setCalorieGoalForDate(LocalDate date, double goal) {
         calorieGoalLogs.put(date, goal);
+        seriesChanged |= store != null;
+        if (journal != null) {
+            journal.calorieGoalSet(date, goal);
+        }
+        for (LogsListener listener : listeners) {
+            listener.calorieGoalUpdated(date, goal);
+        }
     }
 
     /**
@@ -127,52 +318,313 @@ public class Logs {
 
     /**
      * Retrieves all dates with exercise logs.
+     * When loaded lazily, only dates in months held in memory are included.
      * @return Set of dates.
      */
-    public Set<LocalDate> getAllExerciseLogDates() {
-        return exerciseLogs.keySet();
+    public NavigableSet<LocalDate> getAllExerciseLogDates() {
+        return Collections.unmodifiableNavigableSet(exerciseLogs.navigableKeySet());
     }
 
     /**
-     * Retrieves all dates with weight logs.
-     * @return Set of dates.
+     * Retrieves all dates with weight logs, in ascending order.
+     * @return Read-only set of dates.
      */
-    public Set<LocalDate> getAllWeightDates() {
-        return weightLogs.keySet();
+    public NavigableSet<LocalDate> getAllWeightDates() {
+        return Collections.unmodifiableNavigableSet(weightLogs.navigableKeySet());
     }
 
     /**
-     * Retrieves all dates with calorie goal logs.
-     * @return Set of dates.
+     * Retrieves all dates with calorie goal logs, in ascending order.
+     * @return Read-only set of dates.
      */
-    public Set<LocalDate> getAllCalorieGoalDates() {
-        return calorieGoalLogs.keySet();
+    public NavigableSet<LocalDate> getAllCalorieGoalDates() {
+        return Collections.unmodifiableNavigableSet(calorieGoalLogs.navigableKeySet());
     }
 
     /**
-     * Retrieves all food logs.
-     * @return List of all food logs.
+     * Retrieves all food logs, ordered by date.
+     * When loaded lazily, only months held in memory are included.
+     * Use {@link #addLog(Log)} and {@link #removeLog(Log)} to modify them.
+     * @return Read-only list of all food logs.
      */
     public List<Log> getAllLogs() {
-        return logEntries;
+        List<Log> all = new ArrayList<>();
+        for (List<Log> dayLogs : logsByDate.values()) {
+            all.addAll(dayLogs);
+        }
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Saves the logs to the store they were loaded from.
+     * In journaled mode only the changes since the last save are appended to the journal.
+     */
+    public void save() {
+        String location;
+        synchronized (this) {
+            if (store == null) {
+                throw new IllegalStateException("Logs were not loaded from a store");
+            }
+            location = store.getLocation();
+        }
+        if (persistence != null) {
+            persistence.markDirty(location, this::prepareSave);
+        } else {
+            prepareSave().run();
+        }
     }
 
     /**
-     * Saves all logs to a file.
-     * @param filename The filename to save to.
+     * Captures what needs to be saved while holding the lock on these logs.
+     * @return Task that writes the captured data.
      */
-    public void saveLogsToFile(String filename) {
-        fileHandler.writeLogs(filename, this);
+    private synchronized Runnable prepareSave() {
+        if (journal != null) {
+            return journal.prepareFlush(this);
+        }
+        Set<YearMonth> months = new HashSet<>(changedMonths);
+        boolean series = seriesChanged;
+        changedMonths.clear();
+        seriesChanged = false;
+        // Months not in memory must be kept as stored
+        return store.prepareWrite(this, months, series, window != null ? window.residentMonths() : null);
+    }
+
+    /**
+     * Follows a change to an exercise's calorie rate: calories burned on any day may have
+     * changed, so the range index is recomputed as queries need it.
+     */
+    private synchronized void exerciseUpdated() {
+        rangeTotals.invalidateAll();
+    }
+
+    /**
+     * Registers a listener to be told about every later change to these logs.
+     * @param listener The listener to add.
+     */
+    public void addLogsListener(LogsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addLogsListener(LogsListener)}.
+     * @param listener The listener to remove.
+     */
+    public void removeLogsListener(LogsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Saves through the given service on its writer thread instead of on the caller's thread.
+     * @param persistence The persistence service to use.
+     */
+    public void setPersistenceService(PersistenceService persistence) {
+        this.persistence = persistence;
     }
 
     /**
-     * Loads logs from a file.
-     * @param filename The filename to read from.
+     * Switches to journaled persistence. Replays the journal on top of the logs already
+     * loaded from its snapshot, then records every later change in it.
+     * @param journal The journal for the log file these logs were loaded from.
      * @param availableFoods List of available foods.
      * @param exercises Exercise entries.
+     * @param report Report to add unresolved journal entries to.
      */
-    public void readLogsFromFile(String filename, List<Food> availableFoods, Exercises exercises) {
-        fileHandler.readLogs(filename, availableFoods, exercises, this);
+    public void enableJournal(LogJournal journal, List<Food> availableFoods, Exercises exercises,
+            LogLoadReport report) {
+        if (window != null || !(store instanceof CsvLogStore)) {
+            throw new IllegalStateException("Journaled persistence requires logs fully loaded from a CSV log store");
+        }
+        journal.recover(this, availableFoods, exercises, report);
+        this.journal = journal;
+    }
+
+    /**
+     * Loads all logs from a store. Later saves go to the same store.
+     * @param store The store to read from and save to.
+     * @param availableFoods List of available foods.
+     * @param exercises Exercise entries.
+     * @return Report of food and exercise names that could not be resolved.
+     */
+    public LogLoadReport load(LogStore store, List<Food> availableFoods, Exercises exercises) {
+        if (journal != null) {
+            throw new IllegalStateException("Logs are already journaled");
+        }
+        exercises.addExercisesListener(exerciseRates);
+        LogLoadReport report = store.readAll(availableFoods, exercises, this);
+        synchronized (this) {
+            this.store = store;
+            changedMonths.clear();
+            seriesChanged = false;
+        }
+        return report;
+    }
+
+    /**
+     * Loads logs lazily. Food and exercise entries are read only for the months covering the
+     * last {@code windowDays} days (and any later dates); older months are read from the store
+     * when a query or change touches them. Up to {@code cachedMonths} older months stay in
+     * memory, evicting the least recently used. Weights and calorie goals are always loaded
+     * in full. Later saves go to the same store.
+     * @param store The store to read from and save to.
+     * @param availableFoods List of available foods.
+     * @param exercises Exercise entries.
+     * @param windowDays Number of recent days to load up front.
+     * @param cachedMonths Number of older months to keep in memory.
+     * @return Report of unresolved names among the entries loaded up front.
+     */
+    public LogLoadReport loadRecent(LogStore store, List<Food> availableFoods, Exercises exercises,
+            int windowDays, int cachedMonths) {
+        checkLazyLoading(windowDays, cachedMonths);
+        exercises.addExercisesListener(exerciseRates);
+        LogWindow lazy = new LogWindow(availableFoods, exercises, cachedMonths);
+        YearMonth firstRecent = YearMonth.from(LocalDate.now().minusDays(windowDays - 1));
+        LogLoadReport report = store.readFrom(firstRecent, availableFoods, exercises, this, lazy::stored);
+        synchronized (this) {
+            this.store = store;
+            changedMonths.clear();
+            seriesChanged = false;
+        }
+        openWindow(lazy, firstRecent);
+        return report;
+    }
+
+    private void checkLazyLoading(int windowDays, int cachedMonths) {
+        if (windowDays < 1 || cachedMonths < 1) {
+            throw new IllegalArgumentException("Window and cache must cover at least one day and one month");
+        }
+        if (journal != null) {
+            throw new IllegalStateException("Lazy loading cannot be combined with a journal");
+        }
+    }
+
+    /**
+     * Starts paging once the recent months are loaded: pins them and makes the range index
+     * cover every stored month.
+     * @param lazy The window describing the stored months.
+     * @param firstRecent The first month loaded up front.
+     */
+    private synchronized void openWindow(LogWindow lazy, YearMonth firstRecent) {
+        for (YearMonth month = firstRecent; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            lazy.pin(month);
+        }
+        for (YearMonth month : List.copyOf(lazy.storedMonths().tailSet(firstRecent, true))) {
+            lazy.pin(month);
+        }
+        if (!lazy.storedMonths().isEmpty()) {
+            // Cover the whole history so range sums know which days are not yet counted
+            rangeTotals.extendTo(lazy.storedMonths().first().atDay(1));
+            rangeTotals.extendTo(lazy.storedMonths().last().atEndOfMonth());
+        }
+        window = lazy;
+    }
+
+    /**
+     * Prepares a food or exercise change to a date when loaded lazily: pages in the
+     * date's month so no stored entries are lost on save, and keeps it in memory.
+     * @param date The date being changed.
+     */
+    private void touch(LocalDate date) {
+        if (window != null && !pagingIn) {
+            pageInIfNeeded(date);
+            window.pin(YearMonth.from(date));
+        }
+    }
+
+    /**
+     * Records that the food or exercise entries of a month changed, so the next save
+     * writes it.
+     * @param date The date that changed.
+     */
+    private void monthChanged(LocalDate date) {
+        if (store != null && !pagingIn) {
+            changedMonths.add(YearMonth.from(date));
+        }
+    }
+
+    /**
+     * Updates the range index for a change, or only extends it when entries that were
+     * already counted are being paged back in.
+     * @param date The date that changed.
+     */
+    private void indexChanged(LocalDate date) {
+        if (pagingIn) {
+            rangeTotals.extendTo(date);
+        } else {
+            rangeTotals.dayChanged(date);
+        }
+    }
+
+    /**
+     * Tells whether the entries of a date are in memory, so querying or changing the date
+     * does not read the store. Always true unless loaded lazily.
+     * @param date The date about to be read or changed.
+     * @return true if the date's month needs no paging in.
+     */
+    public synchronized boolean isInMemory(LocalDate date) {
+        return window == null || !window.needsPageIn(YearMonth.from(date));
+    }
+
+    /**
+     * Reads the month of a date from the store if it is not in memory, so later queries
+     * and changes of the date are answered from memory. This reads the disk while holding
+     * the lock on these logs, so call it off the event thread, before showing the date.
+     * @param date The date about to be read or changed.
+     */
+    public void pageInMonthOf(LocalDate date) {
+        pageInIfNeeded(date);
+    }
+
+    /**
+     * Pages in the month of a date if it has stored entries that are not in memory.
+     * @param date The date about to be read or changed.
+     */
+    private void pageInIfNeeded(LocalDate date) {
+        if (window == null) {
+            return;
+        }
+        synchronized (this) {
+            YearMonth month = YearMonth.from(date);
+            if (!pagingIn && window.needsPageIn(month)) {
+                pageIn(Set.of(month));
+                evictColdMonths();
+            }
+        }
+    }
+
+    /**
+     * Reads the food and exercise entries of the given months from the store.
+     * @param months The months to page in.
+     */
+    private void pageIn(Set<YearMonth> months) {
+        if (months.isEmpty()) {
+            return;
+        }
+        pagingIn = true;
+        try {
+            store.readMonths(months, window.getFoods(), window.getExercises(), this);
+        } finally {
+            pagingIn = false;
+        }
+        for (YearMonth month : months) {
+            window.pagedIn(month);
+        }
+    }
+
+    /**
+     * Drops the entries of the least recently used months beyond the cache capacity.
+     * Their contribution to the range index stays valid, so the index is not touched.
+     */
+    private void evictColdMonths() {
+        for (YearMonth month : window.takeEvictions()) {
+            LocalDate first = month.atDay(1);
+            LocalDate last = month.atEndOfMonth();
+            logsByDate.subMap(first, true, last, true).clear();
+            exerciseLogs.subMap(first, true, last, true).clear();
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                dailyTotals.remove(date);
+            }
+        }
     }
 
     /**
@@ -181,16 +633,32 @@ public class Logs {
      * @return Weight value or default if none found.
      */
     public double getWeightForDate(LocalDate date) {
-        if (weightLogs.containsKey(date)) {
-            return weightLogs.get(date);
-        }
-
-        LocalDate closest = weightLogs.keySet().stream()
-                .filter(d -> d.isBefore(date))
-                .max(LocalDate::compareTo)
-                .orElse(null);
+        Map.Entry<LocalDate, Double> closest = weightLogs.floorEntry(date);
+        return closest != null ? closest.getValue() : DEFAULT_WEIGHT;
+    }
 
-        return closest != null ? weightLogs.get(closest) : 68.0;
+    /**
+     * Retrieves the weight for every day in a range, carrying the most recent
+     * recorded weight forward over days without an entry.
+     * @param from The first date of the range (inclusive).
+     * @param to The last date of the range (inclusive).
+     * @return Weights indexed by days since {@code from}; empty if {@code to} is before {@code from}.
+     */
+    public double[] getWeightSeries(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return new double[0];
+        }
+        double[] series = new double[(int) ChronoUnit.DAYS.between(from, to) + 1];
+        double current = getWeightForDate(from);
+        int filled = 0;
+        for (Map.Entry<LocalDate, Double> entry : weightLogs.subMap(from, false, to, true).entrySet()) {
+            int index = (int) ChronoUnit.DAYS.between(from, entry.getKey());
+            Arrays.fill(series, filled, index, current);
+            current = entry.getValue();
+            filled = index;
+        }
+        Arrays.fill(series, filled, series.length, current);
+        return series;
     }
 
     /**
@@ -199,16 +667,8 @@ public class Logs {
      * @return Calorie goal value or default if none found.
      */
     public double getCalorieGoalForDate(LocalDate date) {
-        if (calorieGoalLogs.containsKey(date)) {
-            return calorieGoalLogs.get(date);
-        }
-
-        LocalDate closest = calorieGoalLogs.keySet().stream()
-                .filter(d -> d.isBefore(date))
-                .max(LocalDate::compareTo)
-                .orElse(null);
-
-        return closest != null ? calorieGoalLogs.get(closest) : 2000.0;
+        Map.Entry<LocalDate, Double> closest = calorieGoalLogs.floorEntry(date);
+        return closest != null ? closest.getValue() : DEFAULT_CALORIE_GOAL;
     }
 
     /**
@@ -217,9 +677,7 @@ public class Logs {
      * @return Total fat consumed.
      */
     public double getTotalFatForDate(LocalDate date) {
-        return getLogForDate(date).stream()
-                .mapToDouble(Log::getTotalFat)
-                .sum();
+        return getTotalsForDate(date).fat();
     }
 
     /**
@@ -228,9 +686,7 @@ public class Logs {
      * @return Total carbohydrates consumed.
      */
     public double getTotalCarbsForDate(LocalDate date) {
-        return getLogForDate(date).stream()
-                .mapToDouble(Log::getTotalCarbs)
-                .sum();
+        return getTotalsForDate(date).carbs();
     }
 
     /**
@@ -239,8 +695,6 @@ public class Logs {
      * @return Total protein consumed.
      */
     public double getTotalProteinForDate(LocalDate date) {
-        return getLogForDate(date).stream()
-                .mapToDouble(Log::getTotalProtein)
-                .sum();
+        return getTotalsForDate(date).protein();
     }
 }
\ No newline at end of file
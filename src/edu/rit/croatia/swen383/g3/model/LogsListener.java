@@ -0,0 +1,66 @@
+package edu.rit.croatia.swen383.g3.model;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the changes made to {@link Logs}, so views can update only what changed instead
+ * of redrawing a whole day.
+ * <p>
+ * Events are delivered on the thread that made the change, while it holds the lock on the
+ * logs, and in the order the changes were made. Months paged back in from the store are not
+ * changes and produce no events; register listeners after loading to skip the loaded entries.
+ */
+public interface LogsListener {
+
+    /**
+     * Called after a food log was added.
+     *
+     * @param log   the added food log
+     * @param index the position of the log among the food logs of its date
+     */
+    void foodLogAdded(Log log, int index);
+
+    /**
+     * Called after a food log was removed.
+     *
+     * @param log   the removed food log
+     * @param index the position the log had among the food logs of its date
+     */
+    void foodLogRemoved(Log log, int index);
+
+    /**
+     * Called after an exercise entry was added.
+     *
+     * @param date  the date of the entry
+     * @param entry the added entry
+     * @param index the position of the entry among the exercise entries of the date
+     */
+    void exerciseLogAdded(LocalDate date, ExerciseEntry entry, int index);
+
+    /**
+     * Called after an exercise entry was removed.
+     *
+     * @param date  the date of the entry
+     * @param entry the removed entry
+     * @param index the position the entry had among the exercise entries of the date
+     */
+    void exerciseLogRemoved(LocalDate date, ExerciseEntry entry, int index);
+
+    /**
+     * Called after the weight recorded for a date was set. The weight in effect changes
+     * for every later date up to the next recorded weight.
+     *
+     * @param date   the date
+     * @param weight the weight recorded
+     */
+    void weightUpdated(LocalDate date, double weight);
+
+    /**
+     * Called after the calorie goal recorded for a date was set. The goal in effect changes
+     * for every later date up to the next recorded goal.
+     *
+     * @param date the date
+     * @param goal the goal recorded
+     */
+    void calorieGoalUpdated(LocalDate date, double goal);
+}
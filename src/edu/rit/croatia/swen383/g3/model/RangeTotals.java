@@ -0,0 +1,29 @@
+package edu.rit.croatia.swen383.g3.model;
+
+/**
+ * Immutable summary of calories and macronutrients over a range of dates,
+ * such as a week or a month.
+ *
+ * @param caloriesConsumed total calories consumed
+ * @param caloriesBurned   total calories burned through exercise
+ * @param fat              total fat consumed in grams
+ * @param carbs            total carbohydrates consumed in grams
+ * @param protein          total protein consumed in grams
+ */
+public record RangeTotals(double caloriesConsumed, double caloriesBurned, double fat, double carbs,
+        double protein) {
+
+    /**
+     * Totals for a range with no logs.
+     */
+    public static final RangeTotals ZERO = new RangeTotals(0, 0, 0, 0, 0);
+
+    /**
+     * Returns the net calories (consumed minus burned) for the range.
+     *
+     * @return net calories
+     */
+    public double netCalories() {
+        return caloriesConsumed - caloriesBurned;
+    }
+}
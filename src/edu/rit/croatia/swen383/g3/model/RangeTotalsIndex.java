@@ -0,0 +1,269 @@
+package edu.rit.croatia.swen383.g3.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Range sums of the daily totals in {@link Logs}, indexed by epoch day.
+ * <p>
+ * Each day's values are kept in Fenwick trees (binary indexed trees), so a range query
+ * and a change to one day both take O(log n). A day is computed from the logs the first
+ * time a query needs it; until then it is stale. Changing the entries of a computed day
+ * recomputes that day alone, wherever it falls in the range.
+ * <p>
+ * Exercise calories depend on the carried-forward weight and on the exercise's calorie
+ * rate, which are not part of the day's entries: a weight change makes the days it carries
+ * to stale, and a change to the exercise catalog makes every day stale.
+ */
+class RangeTotalsIndex {
+    private static final int CONSUMED = 0;
+    private static final int BURNED = 1;
+    private static final int FAT = 2;
+    private static final int CARBS = 3;
+    private static final int PROTEIN = 4;
+    private static final int FIELDS = 5;
+
+    private final Logs logs;
+    /** The value of each field on each day, by slot. */
+    private double[][] values = new double[FIELDS][16];
+    /** Fenwick trees over {@link #values}, one-based. */
+    private double[][] trees = new double[FIELDS][17];
+    /** The slots holding up to date values. */
+    private BitSet computed = new BitSet();
+    /** Epoch day of slot 0; slots before the covered range are headroom for earlier days. */
+    private long origin;
+    private long baseDay;
+    private int length;
+
+    /**
+     * Creates an empty index over the given logs.
+     *
+     * @param logs the logs whose daily totals are summed
+     */
+    RangeTotalsIndex(Logs logs) {
+        this.logs = logs;
+    }
+
+    /**
+     * Records that the food or exercise logs of a date changed. A computed day is
+     * recomputed now; a stale one is left for the next query that needs it.
+     *
+     * @param date the date that changed
+     */
+    void dayChanged(LocalDate date) {
+        extendTo(date);
+        int slot = slot(date.toEpochDay());
+        if (computed.get(slot)) {
+            compute(slot, date, logs.getWeightForDate(date));
+        }
+    }
+
+    /**
+     * Makes the index cover a date. Days newly covered are stale, so entries that were
+     * already stored but are not in memory are read when a query needs them.
+     *
+     * @param date the date to cover
+     */
+    void extendTo(LocalDate date) {
+        long day = date.toEpochDay();
+        if (length == 0) {
+            origin = day;
+            baseDay = day;
+            length = 1;
+        } else if (day < baseDay) {
+            if (day < origin) {
+                shiftOrigin(day);
+            }
+            length += (int) (baseDay - day);
+            baseDay = day;
+        } else if (day >= baseDay + length) {
+            length = (int) (day - baseDay) + 1;
+        }
+        ensureCapacity(slot(baseDay) + length);
+    }
+
+    /**
+     * Records that the weight of a date changed, which affects calories burned on that
+     * date and every following date up to the next weight entry.
+     *
+     * @param date the date whose weight changed
+     * @param next the date of the next weight entry, or null if there is none
+     */
+    void weightChanged(LocalDate date, LocalDate next) {
+        if (length == 0) {
+            return;
+        }
+        long first = Math.max(date.toEpochDay(), baseDay);
+        long last = Math.min(next == null ? Long.MAX_VALUE : next.toEpochDay() - 1, baseDay + length - 1);
+        if (first <= last) {
+            computed.clear(slot(first), slot(last) + 1);
+        }
+    }
+
+    /**
+     * Makes every day stale, for changes that can affect any day, such as an exercise's
+     * calorie rate.
+     */
+    void invalidateAll() {
+        computed.clear();
+    }
+
+    /**
+     * Sums the totals over an inclusive date range.
+     *
+     * @param from the first date (inclusive)
+     * @param to   the last date (inclusive)
+     * @return the totals over the range
+     */
+    RangeTotals sum(LocalDate from, LocalDate to) {
+        if (length == 0) {
+            return RangeTotals.ZERO;
+        }
+        long lo = Math.max(from.toEpochDay(), baseDay);
+        long hi = Math.min(to.toEpochDay(), baseDay + length - 1);
+        if (lo > hi) {
+            return RangeTotals.ZERO;
+        }
+        computeStale(slot(lo), slot(hi));
+        int start = slot(lo);
+        int end = slot(hi) + 1;
+        return new RangeTotals(
+                prefix(CONSUMED, end) - prefix(CONSUMED, start),
+                prefix(BURNED, end) - prefix(BURNED, start),
+                prefix(FAT, end) - prefix(FAT, start),
+                prefix(CARBS, end) - prefix(CARBS, start),
+                prefix(PROTEIN, end) - prefix(PROTEIN, start));
+    }
+
+    /**
+     * Returns the first covered date that is stale.
+     *
+     * @return the first stale date, or null if every covered date is up to date
+     */
+    LocalDate firstStaleDay() {
+        if (length == 0) {
+            return null;
+        }
+        int stale = computed.nextClearBit(slot(baseDay));
+        return stale < slot(baseDay) + length ? LocalDate.ofEpochDay(origin + stale) : null;
+    }
+
+    /**
+     * Computes the stale days up to and including a date, so later queries ending on or
+     * before it do not read the logs again.
+     *
+     * @param date the last date to compute
+     */
+    void validateThrough(LocalDate date) {
+        long hi = Math.min(date.toEpochDay(), baseDay + length - 1);
+        if (length > 0 && hi >= baseDay) {
+            computeStale(slot(baseDay), slot(hi));
+        }
+    }
+
+    private int slot(long day) {
+        return (int) (day - origin);
+    }
+
+    /**
+     * Computes the stale slots in an inclusive range, reading the weights of the range once.
+     */
+    private void computeStale(int first, int last) {
+        int stale = computed.nextClearBit(first);
+        if (stale > last) {
+            return;
+        }
+        LocalDate from = LocalDate.ofEpochDay(origin + stale);
+        double[] weights = logs.getWeightSeries(from, LocalDate.ofEpochDay(origin + last));
+        for (; stale <= last; stale = computed.nextClearBit(stale + 1)) {
+            compute(stale, LocalDate.ofEpochDay(origin + stale), weights[stale - slot(from.toEpochDay())]);
+        }
+    }
+
+    /**
+     * Recomputes one day and applies the difference to the trees.
+     */
+    private void compute(int slot, LocalDate date, double weight) {
+        DailyTotals totals = logs.getTotalsForDate(date);
+        set(CONSUMED, slot, totals.calories());
+        set(BURNED, slot, logs.getTotalCaloriesBurnedForDate(date, weight));
+        set(FAT, slot, totals.fat());
+        set(CARBS, slot, totals.carbs());
+        set(PROTEIN, slot, totals.protein());
+        computed.set(slot);
+    }
+
+    private void set(int field, int slot, double value) {
+        double delta = value - values[field][slot];
+        if (delta == 0) {
+            return;
+        }
+        values[field][slot] = value;
+        double[] tree = trees[field];
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sums a field over the slots before the given one.
+     */
+    private double prefix(int field, int slots) {
+        double sum = 0;
+        double[] tree = trees[field];
+        for (int i = slots; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Moves slot 0 to before an earlier day, leaving as much headroom again as the index
+     * already covers, so a run of earlier and earlier days shifts the slots only a
+     * logarithmic number of times.
+     */
+    private void shiftOrigin(long day) {
+        int shift = (int) (origin - day) + Math.max(length, 16);
+        for (int f = 0; f < FIELDS; f++) {
+            double[] shifted = new double[values[f].length + shift];
+            System.arraycopy(values[f], 0, shifted, shift, values[f].length);
+            values[f] = shifted;
+        }
+        BitSet shiftedComputed = new BitSet();
+        for (int i = computed.nextSetBit(0); i >= 0; i = computed.nextSetBit(i + 1)) {
+            shiftedComputed.set(i + shift);
+        }
+        computed = shiftedComputed;
+        origin -= shift;
+        rebuildTrees();
+    }
+
+    private void ensureCapacity(int size) {
+        if (values[0].length >= size) {
+            return;
+        }
+        int capacity = Math.max(size, values[0].length * 2);
+        for (int f = 0; f < FIELDS; f++) {
+            values[f] = Arrays.copyOf(values[f], capacity);
+        }
+        rebuildTrees();
+    }
+
+    /**
+     * Builds the trees from the day values in linear time.
+     */
+    private void rebuildTrees() {
+        for (int f = 0; f < FIELDS; f++) {
+            double[] tree = new double[values[f].length + 1];
+            System.arraycopy(values[f], 0, tree, 1, values[f].length);
+            for (int i = 1; i < tree.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+            trees[f] = tree;
+        }
+    }
+}
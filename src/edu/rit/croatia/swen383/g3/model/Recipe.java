@@ -1,16 +1,35 @@
 package edu.rit.croatia.swen383.g3.model;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents a composite food item made up of multiple ingredients, each with a serving amount.
  * This class implements the Composite Design Pattern and extends the abstract Food class.
+ * <p>
+ * The nutritional totals are flattened into a cached vector on first use. Adding an
+ * ingredient clears the cache of this recipe and of every recipe that uses it. Both walk
+ * the nesting with explicit stacks, so deeply nested recipes cannot overflow the call stack.
  */
 public class Recipe extends Food{
+    private static final int CALORIES = 0;
+    private static final int FAT = 1;
+    private static final int CARBS = 2;
+    private static final int PROTEIN = 3;
+
     private String name;
     private Map<Food, Double> ingredients;
+    private final List<Recipe> usedBy = new ArrayList<>();
+    private double[] nutrients;
+    private boolean computing;
 
     /**
      * Constructs a new recipe with the given name.
@@ -36,9 +55,123 @@ public class Recipe extends Food{
      *
      * @param food     the ingredient to add
      * @param servings the amount of the ingredient used in the recipe
+     * @throws IllegalArgumentException if the ingredient is a recipe that contains this recipe
      */
     public void add(Food food, double servings){
+        if (food instanceof Recipe nested) {
+            if (isSelfOrUsedBy(nested)) {
+                throw new IllegalArgumentException(
+                        "Recipe " + name + " cannot include " + nested.getName() + " because it would contain itself");
+            }
+            if (!ingredients.containsKey(nested)) {
+                nested.usedBy.add(this);
+            }
+        }
         ingredients.put(food,servings);
+        invalidate();
+    }
+
+    /**
+     * Checks whether the given recipe is this recipe or (transitively) uses it as an ingredient.
+     * Walks up from this recipe, so it is constant time while the recipe is not used anywhere yet.
+     */
+    private boolean isSelfOrUsedBy(Recipe candidate) {
+        Set<Recipe> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Recipe> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Recipe current = pending.pop();
+            if (current == candidate) {
+                return true;
+            }
+            if (visited.add(current)) {
+                current.usedBy.forEach(pending::push);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears the cached nutrients of this recipe and of every recipe that uses it.
+     * A stale recipe always has stale users, so propagation stops early.
+     */
+    private void invalidate() {
+        Deque<Recipe> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            Recipe current = pending.pop();
+            if (current.nutrients != null) {
+                current.nutrients = null;
+                current.usedBy.forEach(pending::push);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached nutrient vector, computing it from the ingredients if needed.
+     * Stale nested recipes are computed first, in topological order: a depth-first walk
+     * finishes every nested recipe before the recipes that use it.
+     *
+     * @return calories, fat, carbs and protein indexed by the constants of this class
+     * @throws IllegalStateException if the recipe contains itself
+     */
+    private double[] nutrients() {
+        if (nutrients != null) {
+            return nutrients;
+        }
+        // The recipes being computed, innermost first, each with its ingredients still to visit
+        Deque<Recipe> path = new ArrayDeque<>();
+        Deque<Iterator<Food>> remaining = new ArrayDeque<>();
+        computing = true;
+        path.push(this);
+        remaining.push(ingredients.keySet().iterator());
+        try {
+            while (!path.isEmpty()) {
+                Iterator<Food> next = remaining.peek();
+                if (next.hasNext()) {
+                    if (next.next() instanceof Recipe nested && nested.nutrients == null) {
+                        if (nested.computing) {
+                            throw new IllegalStateException("Recipe cycle detected at " + nested.name);
+                        }
+                        nested.computing = true;
+                        path.push(nested);
+                        remaining.push(nested.ingredients.keySet().iterator());
+                    }
+                } else {
+                    remaining.pop();
+                    Recipe done = path.pop();
+                    done.nutrients = done.sumIngredients();
+                    done.computing = false;
+                }
+            }
+        } finally {
+            for (Recipe unfinished : path) {
+                unfinished.computing = false;
+            }
+        }
+        return nutrients;
+    }
+
+    /**
+     * Adds up the ingredients, each nested recipe's totals already computed.
+     */
+    private double[] sumIngredients() {
+        double[] totals = new double[4];
+        for (Map.Entry<Food, Double> entry : ingredients.entrySet()) {
+            double servings = entry.getValue();
+            if (entry.getKey() instanceof Recipe nested) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += nested.nutrients[i] * servings;
+                }
+            } else {
+                Food food = entry.getKey();
+                totals[CALORIES] += food.getCalories() * servings;
+                totals[FAT] += food.getFat() * servings;
+                totals[CARBS] += food.getCarbs() * servings;
+                totals[PROTEIN] += food.getProtein() * servings;
+            }
+        }
+        return totals;
     }
 
     /**
@@ -57,8 +190,7 @@ public class Recipe extends Food{
      */
     @Override
     public double getCalories() {
-        return ingredients.entrySet().stream()
-                .mapToDouble(entry -> entry.getKey().getCalories() * entry.getValue()).sum();
+        return nutrients()[CALORIES];
     }
     /**
      * Calculates and returns the total fat content of the recipe.
@@ -67,9 +199,7 @@ public class Recipe extends Food{
      */
     @Override
     public double getFat() {
-        return ingredients.entrySet().stream()
-                .mapToDouble(entry -> entry.getKey().getFat() * entry.getValue())
-                .sum();
+        return nutrients()[FAT];
     }
     /**
      * Calculates and returns the total carbohydrate content of the recipe.
@@ -78,9 +208,7 @@ public class Recipe extends Food{
      */
     @Override
     public double getCarbs() {
-        return ingredients.entrySet().stream()
-                .mapToDouble(entry -> entry.getKey().getCarbs() * entry.getValue())
-                .sum();
+        return nutrients()[CARBS];
     }
     /**
      * Calculates and returns the total protein content of the recipe.
@@ -89,17 +217,15 @@ public class Recipe extends Food{
      */
     @Override
     public double getProtein() {
-        return ingredients.entrySet().stream()
-                .mapToDouble(entry -> entry.getKey().getProtein() * entry.getValue())
-                .sum();
+        return nutrients()[PROTEIN];
     }
     /**
      * Returns the ingredients and their serving amounts used in this recipe.
      *
-     * @return a set of map entries containing each food and its servings
+     * @return a read-only set of map entries containing each food and its servings
      */
     public Set<Map.Entry<Food, Double>> getIngredientsWithServings() {
-        return ingredients.entrySet();
+        return Collections.unmodifiableMap(ingredients).entrySet();
     }
     /**
      * Returns a string representation of the recipe for display.
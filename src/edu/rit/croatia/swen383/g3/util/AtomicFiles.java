@@ -0,0 +1,216 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replaces files so that a crash leaves either the old or the new contents, never a partly
+ * written file. The data goes to a temporary file next to the target, which is then moved
+ * over it atomically.
+ * <p>
+ * In durable mode the temporary file is also forced to disk before the move, and the
+ * directory after it, so a replaced file survives a power loss. Durable mode is on when the
+ * {@code dietmanager.durableSaves} system property is {@code true}, or per
+ * {@link FileHandler#setDurableWrites(boolean)}.
+ * <p>
+ * Saves made between {@link #beginGroup()} and {@link #endGroup()} on one thread share
+ * their directory syncs: each file replaced in the group is still forced on its own, but
+ * each directory is synced only once, at the end of the group. The forces themselves are
+ * shared one level up, by {@link PersistenceService} coalescing many saves of a file into
+ * one write; it wraps each of its batches in a group.
+ */
+public final class AtomicFiles {
+    private static final ThreadLocal<Set<Path>> GROUP = new ThreadLocal<>();
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Returns whether writes are durable unless configured otherwise.
+     *
+     * @return the value of the {@code dietmanager.durableSaves} system property
+     */
+    public static boolean durableByDefault() {
+        return Boolean.getBoolean("dietmanager.durableSaves");
+    }
+
+    /**
+     * Source of the contents of a replaced text file.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Writes the new contents of the file.
+         *
+         * @param writer the writer for the temporary file
+         * @throws IOException if writing fails
+         */
+        void writeTo(BufferedWriter writer) throws IOException;
+    }
+
+    /**
+     * Replaces a file with lines of text, each followed by a line separator.
+     *
+     * @param target  the file to replace
+     * @param lines   the lines to write
+     * @param durable true to force the data to disk before returning
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path target, List<String> lines, boolean durable) throws IOException {
+        write(target, durable, writer -> {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        });
+    }
+
+    /**
+     * Replaces a file with text produced by the given content.
+     *
+     * @param target  the file to replace
+     * @param durable true to force the data to disk before returning
+     * @param content writes the new contents
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path target, boolean durable, Content content) throws IOException {
+        Path temp = tempFor(target);
+        try (FileChannel channel = openTemp(temp)) {
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+            if (durable) {
+                channel.force(true);
+            }
+        }
+        replace(temp, target, durable);
+    }
+
+    /**
+     * Replaces a file with the remaining bytes of a buffer.
+     *
+     * @param target  the file to replace
+     * @param data    the bytes to write
+     * @param durable true to force the data to disk before returning
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path target, ByteBuffer data, boolean durable) throws IOException {
+        Path temp = tempFor(target);
+        try (FileChannel channel = openTemp(temp)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            if (durable) {
+                channel.force(true);
+            }
+        }
+        replace(temp, target, durable);
+    }
+
+    /**
+     * Appends lines of text to a file, creating it if needed.
+     *
+     * @param target  the file to append to
+     * @param lines   the lines to append
+     * @param durable true to force the data to disk before returning
+     * @throws IOException if the file cannot be written
+     */
+    public static void append(Path target, List<String> lines, boolean durable) throws IOException {
+        boolean created = !Files.exists(target);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            if (durable) {
+                channel.force(false);
+            }
+        }
+        if (durable && created) {
+            syncDirectory(target);
+        }
+    }
+
+    /**
+     * Moves a file over another atomically, and in durable mode makes the move itself durable.
+     * The source must already be on disk if durability is wanted.
+     *
+     * @param source  the file to move
+     * @param target  the file to replace
+     * @param durable true to sync the directory after the move
+     * @throws IOException if the file cannot be moved
+     */
+    public static void replace(Path source, Path target, boolean durable) throws IOException {
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (durable) {
+            syncDirectory(target);
+        }
+    }
+
+    /**
+     * Starts a group on the current thread, deferring directory syncs to {@link #endGroup()}.
+     */
+    public static void beginGroup() {
+        GROUP.set(new LinkedHashSet<>());
+    }
+
+    /**
+     * Ends the group on the current thread, syncing each directory changed in it once.
+     */
+    public static void endGroup() {
+        Set<Path> directories = GROUP.get();
+        GROUP.remove();
+        if (directories != null) {
+            for (Path directory : directories) {
+                forceDirectory(directory);
+            }
+        }
+    }
+
+    private static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        Set<Path> group = GROUP.get();
+        if (group != null) {
+            group.add(directory);
+        } else {
+            forceDirectory(directory);
+        }
+    }
+
+    /**
+     * Forces a directory's entries to disk. Not every platform allows opening a directory;
+     * there the move is as durable as the file system makes it.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on this platform
+        }
+    }
+
+    private static Path tempFor(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    private static FileChannel openTemp(Path temp) throws IOException {
+        return FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
@@ -0,0 +1,449 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of {@link Logs}, stored column by column so loading needs no text parsing.
+ * Each section is a count followed by parallel arrays that are read in bulk into primitive
+ * arrays:
+ * <ul>
+ *   <li>string table: the food and exercise names used by the entries below</li>
+ *   <li>food logs: epoch day {@code int[]}, name id {@code int[]}, servings {@code double[]}</li>
+ *   <li>exercise logs: epoch day {@code int[]}, name id {@code int[]}, minutes {@code double[]}</li>
+ *   <li>weights: epoch day {@code int[]}, weight {@code double[]}</li>
+ *   <li>calorie goals: epoch day {@code int[]}, goal {@code double[]}</li>
+ * </ul>
+ * All values are big-endian. The CSV format of {@link FileHandler#readLogs} stays the
+ * human-readable export; {@link #main(String[])} converts between the two.
+ */
+public class BinaryLogSnapshot {
+    private static final int MAGIC = 0x444D4C42; // "DMLB"
+    private static final int VERSION = 1;
+
+    private final List<Food> foods;
+    private final Exercises exercises;
+
+    /**
+     * Creates a snapshot reader and writer that resolves names against the given catalogs.
+     *
+     * @param foods     the available foods
+     * @param exercises the available exercises
+     */
+    public BinaryLogSnapshot(List<Food> foods, Exercises exercises) {
+        this.foods = foods;
+        this.exercises = exercises;
+    }
+
+    /**
+     * Writes all logs to a binary snapshot, replacing the file atomically.
+     * The columns are copied under the lock on {@code logs}; the file is written outside it.
+     *
+     * @param logs     the Logs object to write
+     * @param filename the path to the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Logs logs, String filename) throws IOException {
+        Columns columns;
+        synchronized (logs) {
+            columns = Columns.of(logs);
+        }
+        writeColumns(columns, Paths.get(filename), AtomicFiles.durableByDefault());
+    }
+
+    /**
+     * Writes columns to a file, replacing it atomically.
+     *
+     * @param columns the columns to write
+     * @param target  the file to replace
+     * @param durable true to force the file to disk before returning
+     * @throws IOException if the file cannot be written
+     */
+    static void writeColumns(Columns columns, Path target, boolean durable) throws IOException {
+        AtomicFiles.write(target, columns.encode(), durable);
+    }
+
+    /**
+     * Reads a binary snapshot into the Logs object.
+     *
+     * @param filename the path to the snapshot file
+     * @param logs     the Logs object to populate
+     * @return a report of the food and exercise names that could not be resolved
+     * @throws IOException if the file cannot be read or is not a log snapshot
+     */
+    public LogLoadReport read(String filename, Logs logs) throws IOException {
+        Columns columns = readColumns(Paths.get(filename));
+        LogLoadReport report = new LogLoadReport();
+        Map<String, Food> foodsByName = new FileHandler().indexFoods(foods);
+        Food[] foodById = resolveFoods(columns, foodsByName);
+        Exercise[] exerciseById = resolveExercises(columns, exercises);
+        applyFoods(columns, 0, columns.foodDays.length, foodById, logs, report);
+        applyExercises(columns, 0, columns.exerciseDays.length, exerciseById, logs, report);
+        applySeries(columns, logs);
+        return report;
+    }
+
+    /**
+     * Reads and decodes a snapshot file.
+     *
+     * @param path the snapshot file
+     * @return the decoded columns
+     * @throws IOException if the file cannot be read or is not a log snapshot
+     */
+    static Columns readColumns(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log snapshot too large: " + channel.size() + " bytes");
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+        }
+        try {
+            return Columns.decode(buffer);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt log snapshot " + path + ": " + e, e);
+        }
+    }
+
+    /**
+     * Resolves each name of the string table to a food once, so rows can be applied by id.
+     *
+     * @return the food for each name id, or null where no food has the name
+     */
+    static Food[] resolveFoods(Columns columns, Map<String, Food> foodsByName) {
+        Food[] foodById = new Food[columns.names.length];
+        for (int id = 0; id < columns.names.length; id++) {
+            foodById[id] = foodsByName.get(Names.fold(columns.names[id]));
+        }
+        return foodById;
+    }
+
+    /**
+     * Resolves each name of the string table to an exercise once, so rows can be applied by id.
+     *
+     * @return the exercise for each name id, or null where no exercise has the name
+     */
+    static Exercise[] resolveExercises(Columns columns, Exercises exercises) {
+        Exercise[] exerciseById = new Exercise[columns.names.length];
+        for (int id = 0; id < columns.names.length; id++) {
+            exerciseById[id] = exercises.findExerciseByName(columns.names[id]);
+        }
+        return exerciseById;
+    }
+
+    /**
+     * Adds the food rows {@code [from, to)} to the logs.
+     */
+    static void applyFoods(Columns columns, int from, int to, Food[] foodById, Logs logs, LogLoadReport report) {
+        LocalDate date = null;
+        for (int i = from; i < to; i++) {
+            date = dateOf(columns.foodDays[i], date);
+            Food food = foodById[columns.foodIds[i]];
+            if (food != null) {
+                logs.addLog(new Log(date, food, columns.servings[i]));
+            } else {
+                report.unresolvedFood(columns.names[columns.foodIds[i]]);
+            }
+        }
+    }
+
+    /**
+     * Adds the exercise rows {@code [from, to)} to the logs.
+     */
+    static void applyExercises(Columns columns, int from, int to, Exercise[] exerciseById, Logs logs,
+            LogLoadReport report) {
+        LocalDate date = null;
+        for (int i = from; i < to; i++) {
+            date = dateOf(columns.exerciseDays[i], date);
+            Exercise exercise = exerciseById[columns.exerciseIds[i]];
+            if (exercise != null) {
+                logs.addExerciseLog(date, new ExerciseEntry(exercise, columns.minutes[i]));
+            } else {
+                report.unresolvedExercise(columns.names[columns.exerciseIds[i]]);
+            }
+        }
+    }
+
+    /**
+     * Sets every weight and calorie goal of the columns in the logs.
+     */
+    static void applySeries(Columns columns, Logs logs) {
+        LocalDate date = null;
+        for (int i = 0; i < columns.weightDays.length; i++) {
+            date = dateOf(columns.weightDays[i], date);
+            logs.setWeightForDate(date, columns.weights[i]);
+        }
+        for (int i = 0; i < columns.goalDays.length; i++) {
+            date = dateOf(columns.goalDays[i], date);
+            logs.setCalorieGoalForDate(date, columns.goals[i]);
+        }
+    }
+
+    /**
+     * Reuses the previous date while consecutive entries share a day, as entries are date-ordered.
+     */
+    private static LocalDate dateOf(int epochDay, LocalDate previous) {
+        return previous != null && previous.toEpochDay() == epochDay ? previous : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Converts a log CSV file to a binary snapshot.
+     *
+     * @param csvFile    the path to the log CSV file
+     * @param binaryFile the path to the snapshot to write
+     * @return a report of the names in the CSV file that could not be resolved
+     * @throws IOException if the snapshot cannot be written
+     */
+    public LogLoadReport convertFromCsv(String csvFile, String binaryFile) throws IOException {
+        FileHandler fileHandler = new FileHandler();
+        Logs logs = new Logs();
+        LogLoadReport report = new CsvLogStore(csvFile, fileHandler).readAll(foods, exercises, logs);
+        write(logs, binaryFile);
+        return report;
+    }
+
+    /**
+     * Exports a binary snapshot as a log CSV file.
+     *
+     * @param binaryFile the path to the snapshot
+     * @param csvFile    the path to the log CSV file to write
+     * @return a report of the names in the snapshot that could not be resolved
+     * @throws IOException if the snapshot cannot be read
+     */
+    public LogLoadReport exportToCsv(String binaryFile, String csvFile) throws IOException {
+        FileHandler fileHandler = new FileHandler();
+        Logs logs = new Logs();
+        LogLoadReport report = read(binaryFile, logs);
+        fileHandler.writeLogs(csvFile, logs);
+        return report;
+    }
+
+    /**
+     * Converts between the log formats using the configured food and exercise catalogs
+     * (see {@link StorageConfig}).
+     * Usage: {@code BinaryLogSnapshot <log.csv> <log.bin>} to convert CSV to binary, or
+     * {@code BinaryLogSnapshot --export <log.bin> <log.csv>} to export binary as CSV.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        boolean export = args.length == 3 && "--export".equals(args[0]);
+        if (args.length != 2 && !export) {
+            System.out.println("Usage: BinaryLogSnapshot <log.csv> <log.bin>");
+            System.out.println("       BinaryLogSnapshot --export <log.bin> <log.csv>");
+            return;
+        }
+        CatalogStore catalogs = StorageConfig.fromSystemProperties(new FileHandler()).createCatalogStore();
+        Exercises exercises = new Exercises(catalogs);
+        exercises.load();
+        BinaryLogSnapshot snapshot = new BinaryLogSnapshot(catalogs.readFoods(), exercises);
+        try {
+            LogLoadReport report = export
+                    ? snapshot.exportToCsv(args[1], args[2])
+                    : snapshot.convertFromCsv(args[0], args[1]);
+            System.out.println(report);
+        } catch (IOException e) {
+            System.out.println("Error converting logs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The column arrays of a snapshot.
+     */
+    static final class Columns {
+        String[] names;
+        int[] foodDays;
+        int[] foodIds;
+        double[] servings;
+        int[] exerciseDays;
+        int[] exerciseIds;
+        double[] minutes;
+        int[] weightDays;
+        double[] weights;
+        int[] goalDays;
+        double[] goals;
+
+        /**
+         * Copies the logs into columns. Callers must hold the lock on {@code logs}.
+         */
+        static Columns of(Logs logs) {
+            Columns c = new Columns();
+            Map<String, Integer> nameIds = new HashMap<>();
+            List<String> names = new ArrayList<>();
+
+            List<Log> foodLogs = logs.getAllLogs();
+            c.foodDays = new int[foodLogs.size()];
+            c.foodIds = new int[foodLogs.size()];
+            c.servings = new double[foodLogs.size()];
+            for (int i = 0; i < foodLogs.size(); i++) {
+                Log log = foodLogs.get(i);
+                c.foodDays[i] = (int) log.getDate().toEpochDay();
+                c.foodIds[i] = nameId(log.getFood().getName(), nameIds, names);
+                c.servings[i] = log.getServings();
+            }
+
+            List<LocalDate> exerciseDates = new ArrayList<>();
+            List<ExerciseEntry> entries = new ArrayList<>();
+            for (LocalDate date : logs.getAllExerciseLogDates()) {
+                for (ExerciseEntry entry : logs.getExercisesForDate(date)) {
+                    exerciseDates.add(date);
+                    entries.add(entry);
+                }
+            }
+            c.exerciseDays = new int[entries.size()];
+            c.exerciseIds = new int[entries.size()];
+            c.minutes = new double[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                c.exerciseDays[i] = (int) exerciseDates.get(i).toEpochDay();
+                c.exerciseIds[i] = nameId(entries.get(i).getExercise().getName(), nameIds, names);
+                c.minutes[i] = entries.get(i).getMinutes();
+            }
+
+            c.weightDays = new int[logs.getAllWeightDates().size()];
+            c.weights = new double[c.weightDays.length];
+            int i = 0;
+            for (LocalDate date : logs.getAllWeightDates()) {
+                c.weightDays[i] = (int) date.toEpochDay();
+                c.weights[i++] = logs.getWeightForExactDate(date);
+            }
+
+            c.goalDays = new int[logs.getAllCalorieGoalDates().size()];
+            c.goals = new double[c.goalDays.length];
+            i = 0;
+            for (LocalDate date : logs.getAllCalorieGoalDates()) {
+                c.goalDays[i] = (int) date.toEpochDay();
+                c.goals[i++] = logs.getCalorieGoalForExactDate(date);
+            }
+
+            c.names = names.toArray(new String[0]);
+            return c;
+        }
+
+        private static int nameId(String name, Map<String, Integer> nameIds, List<String> names) {
+            return nameIds.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+
+        ByteBuffer encode() {
+            byte[][] encodedNames = new byte[names.length][];
+            int size = 4 * 3;
+            for (int i = 0; i < names.length; i++) {
+                encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+                size += 4 + encodedNames[i].length;
+            }
+            size += 4 + foodDays.length * (4 + 4 + 8);
+            size += 4 + exerciseDays.length * (4 + 4 + 8);
+            size += 4 + weightDays.length * (4 + 8);
+            size += 4 + goalDays.length * (4 + 8);
+
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            buffer.putInt(names.length);
+            for (byte[] name : encodedNames) {
+                buffer.putInt(name.length).put(name);
+            }
+            buffer.putInt(foodDays.length);
+            putInts(buffer, foodDays);
+            putInts(buffer, foodIds);
+            putDoubles(buffer, servings);
+            buffer.putInt(exerciseDays.length);
+            putInts(buffer, exerciseDays);
+            putInts(buffer, exerciseIds);
+            putDoubles(buffer, minutes);
+            buffer.putInt(weightDays.length);
+            putInts(buffer, weightDays);
+            putDoubles(buffer, weights);
+            buffer.putInt(goalDays.length);
+            putInts(buffer, goalDays);
+            putDoubles(buffer, goals);
+            buffer.flip();
+            return buffer;
+        }
+
+        static Columns decode(ByteBuffer buffer) throws IOException {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("not a log snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported log snapshot version " + version);
+            }
+            Columns c = new Columns();
+            c.names = new String[buffer.getInt()];
+            for (int i = 0; i < c.names.length; i++) {
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                c.names[i] = new String(name, StandardCharsets.UTF_8);
+            }
+            int foodCount = buffer.getInt();
+            c.foodDays = getInts(buffer, foodCount);
+            c.foodIds = getInts(buffer, foodCount);
+            c.servings = getDoubles(buffer, foodCount);
+            int exerciseCount = buffer.getInt();
+            c.exerciseDays = getInts(buffer, exerciseCount);
+            c.exerciseIds = getInts(buffer, exerciseCount);
+            c.minutes = getDoubles(buffer, exerciseCount);
+            int weightCount = buffer.getInt();
+            c.weightDays = getInts(buffer, weightCount);
+            c.weights = getDoubles(buffer, weightCount);
+            int goalCount = buffer.getInt();
+            c.goalDays = getInts(buffer, goalCount);
+            c.goals = getDoubles(buffer, goalCount);
+            for (int id : c.foodIds) {
+                checkId(id, c.names.length);
+            }
+            for (int id : c.exerciseIds) {
+                checkId(id, c.names.length);
+            }
+            return c;
+        }
+
+        private static void checkId(int id, int count) throws IOException {
+            if (id < 0 || id >= count) {
+                throw new IOException("name id " + id + " outside string table of " + count);
+            }
+        }
+
+        private static void putInts(ByteBuffer buffer, int[] values) {
+            buffer.asIntBuffer().put(values);
+            buffer.position(buffer.position() + values.length * 4);
+        }
+
+        private static void putDoubles(ByteBuffer buffer, double[] values) {
+            buffer.asDoubleBuffer().put(values);
+            buffer.position(buffer.position() + values.length * 8);
+        }
+
+        private static int[] getInts(ByteBuffer buffer, int count) {
+            int[] values = new int[count];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + count * 4);
+            return values;
+        }
+
+        private static double[] getDoubles(ByteBuffer buffer, int count) {
+            double[] values = new double[count];
+            buffer.asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + count * 8);
+            return values;
+        }
+    }
+}
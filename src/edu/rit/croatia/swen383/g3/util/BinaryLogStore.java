@@ -0,0 +1,381 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+import edu.rit.croatia.swen383.g3.util.BinaryLogSnapshot.Columns;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Keeps logs in the binary column format of {@link BinaryLogSnapshot}. Rows are sorted by
+ * date, so the day columns serve as the index: reading a month binary-searches them and
+ * applies only that slice, without parsing any text.
+ * <p>
+ * The index serves reads only: every write, a point write of one date included, rewrites the
+ * file, since the rows after a changed date move. When only some months are in memory, the
+ * stored rows of the other months are carried over as they are, including rows naming foods
+ * or exercises missing from the catalog. Writes are serialized on the store.
+ */
+public class BinaryLogStore implements LogStore {
+    private final Path file;
+    private final FileHandler fileHandler;
+
+    /**
+     * Creates a store over the given file.
+     *
+     * @param filename    the path to the binary log file
+     * @param fileHandler the FileHandler used to index foods by name and for its write settings
+     */
+    public BinaryLogStore(String filename, FileHandler fileHandler) {
+        this.file = Paths.get(filename);
+        this.fileHandler = fileHandler;
+    }
+
+    @Override
+    public String getLocation() {
+        return file.toString();
+    }
+
+    /**
+     * Checks whether the store has been created, either by a save or a migration.
+     *
+     * @return true if the file exists
+     */
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    @Override
+    public LogLoadReport readFrom(YearMonth first, List<Food> foods, Exercises exercises, Logs logs,
+            Consumer<YearMonth> monthsWithEntries) {
+        LogLoadReport report = new LogLoadReport();
+        Columns columns = read();
+        if (columns == null) {
+            return report;
+        }
+        reportMonths(columns.foodDays, monthsWithEntries);
+        reportMonths(columns.exerciseDays, monthsWithEntries);
+
+        int firstDay = (int) first.atDay(1).toEpochDay();
+        BinaryLogSnapshot.applyFoods(columns, lowerBound(columns.foodDays, firstDay), columns.foodDays.length,
+                BinaryLogSnapshot.resolveFoods(columns, fileHandler.indexFoods(foods)), logs, report);
+        BinaryLogSnapshot.applyExercises(columns, lowerBound(columns.exerciseDays, firstDay),
+                columns.exerciseDays.length, BinaryLogSnapshot.resolveExercises(columns, exercises), logs, report);
+        BinaryLogSnapshot.applySeries(columns, logs);
+        return report;
+    }
+
+    @Override
+    public LogLoadReport readMonths(Set<YearMonth> months, List<Food> foods, Exercises exercises, Logs logs) {
+        LogLoadReport report = new LogLoadReport();
+        Columns columns = months.isEmpty() ? null : read();
+        if (columns == null) {
+            return report;
+        }
+        Food[] foodById = BinaryLogSnapshot.resolveFoods(columns, fileHandler.indexFoods(foods));
+        Exercise[] exerciseById = BinaryLogSnapshot.resolveExercises(columns, exercises);
+        for (YearMonth month : new TreeSet<>(months)) {
+            int from = (int) month.atDay(1).toEpochDay();
+            int to = (int) month.atEndOfMonth().toEpochDay() + 1;
+            BinaryLogSnapshot.applyFoods(columns, lowerBound(columns.foodDays, from),
+                    lowerBound(columns.foodDays, to), foodById, logs, report);
+            BinaryLogSnapshot.applyExercises(columns, lowerBound(columns.exerciseDays, from),
+                    lowerBound(columns.exerciseDays, to), exerciseById, logs, report);
+        }
+        return report;
+    }
+
+    /**
+     * Copies every loaded row; the file is rewritten as a whole, so the changed months only
+     * matter in that the months not loaded are merged in from the stored file.
+     */
+    @Override
+    public Runnable prepareWrite(Logs logs, Set<YearMonth> changedMonths, boolean seriesChanged,
+            Set<YearMonth> loadedMonths) {
+        Columns memory = Columns.of(logs);
+        Set<YearMonth> loaded = loadedMonths == null ? null : Set.copyOf(loadedMonths);
+        return () -> {
+            synchronized (this) {
+                try {
+                    Columns columns = memory;
+                    if (loaded != null && exists()) {
+                        columns = merge(BinaryLogSnapshot.readColumns(file), memory, loaded);
+                    }
+                    BinaryLogSnapshot.writeColumns(columns, file, fileHandler.isDurableWrites());
+                } catch (IOException e) {
+                    System.out.println("Error writing " + file + ": " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Splices the rows of the date into the stored columns: the rows of other dates keep their
+     * positions and names, so nothing is re-sorted. Names left unused stay in the string table
+     * until the next full save. The series are kept as stored.
+     */
+    @Override
+    public synchronized void writeDay(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseEntries) {
+        int day = (int) date.toEpochDay();
+        try {
+            Columns columns = exists() ? BinaryLogSnapshot.readColumns(file)
+                    : toColumns(List.of(), List.of(), Map.of(), Map.of());
+            Map<String, Integer> nameIds = new HashMap<>();
+            List<String> names = new ArrayList<>(Arrays.asList(columns.names));
+            for (int i = 0; i < names.size(); i++) {
+                nameIds.putIfAbsent(names.get(i), i);
+            }
+
+            int[] foodIds = new int[foodLogs.size()];
+            double[] servings = new double[foodLogs.size()];
+            for (int i = 0; i < foodLogs.size(); i++) {
+                foodIds[i] = nameId(foodLogs.get(i).getFood().getName(), nameIds, names);
+                servings[i] = foodLogs.get(i).getServings();
+            }
+            int from = lowerBound(columns.foodDays, day);
+            int to = lowerBound(columns.foodDays, day + 1);
+            columns.foodDays = splice(columns.foodDays, from, to, sameDay(day, foodIds.length));
+            columns.foodIds = splice(columns.foodIds, from, to, foodIds);
+            columns.servings = splice(columns.servings, from, to, servings);
+
+            int[] exerciseIds = new int[exerciseEntries.size()];
+            double[] minutes = new double[exerciseEntries.size()];
+            for (int i = 0; i < exerciseEntries.size(); i++) {
+                exerciseIds[i] = nameId(exerciseEntries.get(i).getExercise().getName(), nameIds, names);
+                minutes[i] = exerciseEntries.get(i).getMinutes();
+            }
+            from = lowerBound(columns.exerciseDays, day);
+            to = lowerBound(columns.exerciseDays, day + 1);
+            columns.exerciseDays = splice(columns.exerciseDays, from, to, sameDay(day, exerciseIds.length));
+            columns.exerciseIds = splice(columns.exerciseIds, from, to, exerciseIds);
+            columns.minutes = splice(columns.minutes, from, to, minutes);
+
+            columns.names = names.toArray(new String[0]);
+            BinaryLogSnapshot.writeColumns(columns, file, fileHandler.isDurableWrites());
+        } catch (IOException e) {
+            System.out.println("Error writing " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates this store from a log CSV file, replacing its contents. Lines are converted
+     * without resolving names, so entries naming foods or exercises that are not in the
+     * catalog are kept. Comments and lines without a valid date are dropped.
+     *
+     * @param logFile the path to the log CSV file
+     * @throws IOException if the file cannot be read or the store cannot be written
+     */
+    public synchronized void migrate(String logFile) throws IOException {
+        List<Row> foodRows = new ArrayList<>();
+        List<Row> exerciseRows = new ArrayList<>();
+        NavigableMap<Integer, Double> weights = new TreeMap<>();
+        NavigableMap<Integer, Double> goals = new TreeMap<>();
+        CsvTokenizer csv = new CsvTokenizer();
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    if (!csv.reset(line).next()) {
+                        continue;
+                    }
+                    int year = csv.intValue();
+                    if (!csv.next()) {
+                        continue;
+                    }
+                    int month = csv.intValue();
+                    if (!csv.next()) {
+                        continue;
+                    }
+                    int day = (int) LocalDate.of(year, month, csv.intValue()).toEpochDay();
+                    if (!csv.next()) {
+                        continue;
+                    }
+                    char type = csv.firstChar();
+                    if ((type == 'f' || type == 'e') && csv.next()) {
+                        String name = csv.text();
+                        if (csv.next()) {
+                            (type == 'f' ? foodRows : exerciseRows).add(new Row(day, name, csv.doubleValue()));
+                        }
+                    } else if ((type == 'w' || type == 'c') && csv.next()) {
+                        (type == 'w' ? weights : goals).put(day, csv.doubleValue());
+                    }
+                } catch (NumberFormatException | DateTimeException e) {
+                    // Not a log line
+                }
+            }
+        }
+        // The day columns are the index, so rows must be in date order; the sort is stable
+        foodRows.sort(Comparator.comparingInt(Row::day));
+        exerciseRows.sort(Comparator.comparingInt(Row::day));
+        BinaryLogSnapshot.writeColumns(toColumns(foodRows, exerciseRows, weights, goals), file,
+                fileHandler.isDurableWrites());
+    }
+
+    private Columns read() {
+        if (!exists()) {
+            return null;
+        }
+        try {
+            return BinaryLogSnapshot.readColumns(file);
+        } catch (IOException e) {
+            System.out.println("Error reading " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Passes each distinct month of a sorted day column to the consumer.
+     */
+    private static void reportMonths(int[] days, Consumer<YearMonth> monthsWithEntries) {
+        long monthEnd = Long.MIN_VALUE;
+        for (int day : days) {
+            if (day > monthEnd) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+                monthsWithEntries.accept(month);
+                monthEnd = month.atEndOfMonth().toEpochDay();
+            }
+        }
+    }
+
+    /**
+     * Finds the first row of a sorted day column on or after a day.
+     *
+     * @return the index of the row, or the length of the column if every row is earlier
+     */
+    private static int lowerBound(int[] days, int day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Replaces the elements {@code from} (inclusive) to {@code to} (exclusive) of a column.
+     */
+    private static int[] splice(int[] column, int from, int to, int[] inserted) {
+        int[] spliced = new int[column.length - (to - from) + inserted.length];
+        System.arraycopy(column, 0, spliced, 0, from);
+        System.arraycopy(inserted, 0, spliced, from, inserted.length);
+        System.arraycopy(column, to, spliced, from + inserted.length, column.length - to);
+        return spliced;
+    }
+
+    private static double[] splice(double[] column, int from, int to, double[] inserted) {
+        double[] spliced = new double[column.length - (to - from) + inserted.length];
+        System.arraycopy(column, 0, spliced, 0, from);
+        System.arraycopy(inserted, 0, spliced, from, inserted.length);
+        System.arraycopy(column, to, spliced, from + inserted.length, column.length - to);
+        return spliced;
+    }
+
+    private static int[] sameDay(int day, int count) {
+        int[] days = new int[count];
+        Arrays.fill(days, day);
+        return days;
+    }
+
+    /**
+     * Combines the stored rows of months that are not loaded with every row in memory.
+     * The two sets of months are disjoint, so sorting by day keeps each day's order.
+     */
+    private static Columns merge(Columns stored, Columns memory, Set<YearMonth> loaded) {
+        List<Row> foodRows = rows(memory.names, memory.foodDays, memory.foodIds, memory.servings, null);
+        foodRows.addAll(rows(stored.names, stored.foodDays, stored.foodIds, stored.servings, loaded));
+        foodRows.sort(Comparator.comparingInt(Row::day));
+        List<Row> exerciseRows = rows(memory.names, memory.exerciseDays, memory.exerciseIds, memory.minutes, null);
+        exerciseRows.addAll(rows(stored.names, stored.exerciseDays, stored.exerciseIds, stored.minutes, loaded));
+        exerciseRows.sort(Comparator.comparingInt(Row::day));
+
+        Columns merged = toColumns(foodRows, exerciseRows, Map.of(), Map.of());
+        merged.weightDays = memory.weightDays;
+        merged.weights = memory.weights;
+        merged.goalDays = memory.goalDays;
+        merged.goals = memory.goals;
+        return merged;
+    }
+
+    /**
+     * Lists the rows of a section, skipping rows in the excluded months.
+     */
+    private static List<Row> rows(String[] names, int[] days, int[] ids, double[] values, Set<YearMonth> excluded) {
+        List<Row> rows = new ArrayList<>(days.length);
+        for (int i = 0; i < days.length; i++) {
+            if (excluded == null || !excluded.contains(YearMonth.from(LocalDate.ofEpochDay(days[i])))) {
+                rows.add(new Row(days[i], names[ids[i]], values[i]));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Builds columns from rows that are already sorted by day and from series keyed by day.
+     */
+    private static Columns toColumns(List<Row> foodRows, List<Row> exerciseRows,
+            Map<Integer, Double> weights, Map<Integer, Double> goals) {
+        Columns columns = new Columns();
+        Map<String, Integer> nameIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+
+        columns.foodDays = new int[foodRows.size()];
+        columns.foodIds = new int[foodRows.size()];
+        columns.servings = new double[foodRows.size()];
+        for (int i = 0; i < foodRows.size(); i++) {
+            Row row = foodRows.get(i);
+            columns.foodDays[i] = row.day();
+            columns.foodIds[i] = nameId(row.name(), nameIds, names);
+            columns.servings[i] = row.value();
+        }
+        columns.exerciseDays = new int[exerciseRows.size()];
+        columns.exerciseIds = new int[exerciseRows.size()];
+        columns.minutes = new double[exerciseRows.size()];
+        for (int i = 0; i < exerciseRows.size(); i++) {
+            Row row = exerciseRows.get(i);
+            columns.exerciseDays[i] = row.day();
+            columns.exerciseIds[i] = nameId(row.name(), nameIds, names);
+            columns.minutes[i] = row.value();
+        }
+        columns.weightDays = days(weights);
+        columns.weights = values(weights);
+        columns.goalDays = days(goals);
+        columns.goals = values(goals);
+        columns.names = names.toArray(new String[0]);
+        return columns;
+    }
+
+    private static int nameId(String name, Map<String, Integer> nameIds, List<String> names) {
+        return nameIds.computeIfAbsent(name, n -> {
+            names.add(n);
+            return names.size() - 1;
+        });
+    }
+
+    private static int[] days(Map<Integer, Double> series) {
+        return series.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static double[] values(Map<Integer, Double> series) {
+        return series.values().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * One food or exercise row: the epoch day, the name as stored and the servings or minutes.
+     */
+    private record Row(int day, String name, double value) {
+    }
+}
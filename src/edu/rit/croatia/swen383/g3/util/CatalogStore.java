@@ -0,0 +1,55 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.util.List;
+
+/**
+ * Storage backend for the food and exercise catalogs.
+ *
+ * @see StorageConfig
+ */
+public interface CatalogStore {
+
+    /**
+     * Identifies where the foods are kept, for messages and for coalescing saves.
+     *
+     * @return the path of the foods file
+     */
+    String getFoodsLocation();
+
+    /**
+     * Identifies where the exercises are kept, for messages and for coalescing saves.
+     *
+     * @return the path of the exercises file
+     */
+    String getExercisesLocation();
+
+    /**
+     * Reads all foods, basic foods and recipes.
+     *
+     * @return the foods, or an empty list if none are stored
+     */
+    List<Food> readFoods();
+
+    /**
+     * Replaces the stored foods.
+     *
+     * @param foods the foods to store
+     */
+    void writeFoods(List<Food> foods);
+
+    /**
+     * Reads all exercises.
+     *
+     * @return the exercises, or an empty list if none are stored
+     */
+    List<Exercise> readExercises();
+
+    /**
+     * Replaces the stored exercises.
+     *
+     * @param exercises the exercises to store
+     */
+    void writeExercises(List<Exercise> exercises);
+}
@@ -0,0 +1,57 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.util.List;
+
+/**
+ * Keeps the food and exercise catalogs in the CSV files read and written by {@link FileHandler}.
+ */
+public class CsvCatalogStore implements CatalogStore {
+    private final String foodsFile;
+    private final String exercisesFile;
+    private final FileHandler fileHandler;
+
+    /**
+     * Creates a store over the given files.
+     *
+     * @param foodsFile     the path to the foods CSV file
+     * @param exercisesFile the path to the exercises CSV file
+     * @param fileHandler   the FileHandler used to read and write the files
+     */
+    public CsvCatalogStore(String foodsFile, String exercisesFile, FileHandler fileHandler) {
+        this.foodsFile = foodsFile;
+        this.exercisesFile = exercisesFile;
+        this.fileHandler = fileHandler;
+    }
+
+    @Override
+    public String getFoodsLocation() {
+        return foodsFile;
+    }
+
+    @Override
+    public String getExercisesLocation() {
+        return exercisesFile;
+    }
+
+    @Override
+    public List<Food> readFoods() {
+        return fileHandler.readFoods(foodsFile);
+    }
+
+    @Override
+    public void writeFoods(List<Food> foods) {
+        fileHandler.writeFoods(foods, foodsFile);
+    }
+
+    @Override
+    public List<Exercise> readExercises() {
+        return fileHandler.readExercises(exercisesFile);
+    }
+
+    @Override
+    public void writeExercises(List<Exercise> exercises) {
+        fileHandler.writeExercises(exercises, exercisesFile);
+    }
+}
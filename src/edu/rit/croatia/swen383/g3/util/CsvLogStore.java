@@ -0,0 +1,102 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Keeps all logs in one CSV file in the format of {@link FileHandler#readLogs}.
+ * Saves write the file sorted by date with a {@link LogIndex}, so reading months seeks to
+ * them; without a current index, reading months scans the file, skipping other lines after
+ * their date. Every save rewrites the file; when only some months are in memory, the lines
+ * of the others are copied over.
+ */
+public class CsvLogStore implements LogStore {
+    private final String filename;
+    private final FileHandler fileHandler;
+
+    /**
+     * Creates a store over the given file.
+     *
+     * @param filename    the path to the log CSV file
+     * @param fileHandler the FileHandler used to read and write the file
+     */
+    public CsvLogStore(String filename, FileHandler fileHandler) {
+        this.filename = filename;
+        this.fileHandler = fileHandler;
+    }
+
+    @Override
+    public String getLocation() {
+        return filename;
+    }
+
+    @Override
+    public LogLoadReport readFrom(YearMonth first, List<Food> foods, Exercises exercises, Logs logs,
+            Consumer<YearMonth> monthsWithEntries) {
+        return fileHandler.readLogs(filename, foods, exercises, logs, (year, month, type) -> {
+            if (!isEntry(type)) {
+                return true;
+            }
+            YearMonth stored = YearMonth.of(year, month);
+            monthsWithEntries.accept(stored);
+            return !stored.isBefore(first);
+        });
+    }
+
+    @Override
+    public LogLoadReport readMonths(Set<YearMonth> months, List<Food> foods, Exercises exercises, Logs logs) {
+        if (months.isEmpty()) {
+            return new LogLoadReport();
+        }
+        if (LogIndex.open(filename) == null) {
+            return fileHandler.readLogs(filename, foods, exercises, logs,
+                    (year, month, type) -> isEntry(type) && months.contains(YearMonth.of(year, month)));
+        }
+        LogLoadReport report = new LogLoadReport();
+        for (YearMonth month : new TreeSet<>(months)) {
+            report.merge(fileHandler.readLogs(filename, month.atDay(1), month.atEndOfMonth(),
+                    (year, m, type) -> isEntry(type), foods, exercises, logs));
+        }
+        return report;
+    }
+
+    @Override
+    public LogLoadReport readAll(List<Food> foods, Exercises exercises, Logs logs) {
+        return fileHandler.readLogs(filename, foods, exercises, logs);
+    }
+
+    @Override
+    public Runnable prepareWrite(Logs logs, Set<YearMonth> changedMonths, boolean seriesChanged,
+            Set<YearMonth> loadedMonths) {
+        List<String> lines = fileHandler.formatLogs(logs);
+        if (loadedMonths == null) {
+            return () -> {
+                synchronized (this) {
+                    fileHandler.writeLogLines(filename, lines);
+                }
+            };
+        }
+        Set<YearMonth> loaded = Set.copyOf(loadedMonths);
+        return () -> {
+            synchronized (this) {
+                fileHandler.mergeLogs(filename, filename, (year, month, type) ->
+                        isEntry(type) && !loaded.contains(YearMonth.of(year, month)), lines);
+            }
+        };
+    }
+
+    @Override
+    public synchronized void writeDay(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseEntries) {
+        fileHandler.replaceEntries(filename, date, fileHandler.formatEntries(date, foodLogs, exerciseEntries));
+    }
+
+    private static boolean isEntry(char type) {
+        return type == 'f' || type == 'e';
+    }
+}
@@ -0,0 +1,265 @@
+package edu.rit.croatia.swen383.g3.util;
+
+/**
+ * Cursor-style tokenizer for one CSV line, shared by all readers in the application.
+ * Each call to {@link #next()} moves to the following field and exposes it as a range
+ * of the input; numbers are parsed straight from that range without creating Strings.
+ * A tokenizer can be reset and reused for every line of a file.
+ * <p>
+ * Fields may be quoted with {@code "}; a quoted field may contain commas, and a doubled
+ * quote {@code ""} inside it stands for one quote. Use {@link #quote(String)} when writing
+ * names so they can be read back.
+ */
+public final class CsvTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+        1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * Most significant digits parsed in place. Up to 15 digits the mantissa is below 2^53, so
+     * it and the power of ten are exact doubles and the one division rounds correctly; a
+     * longer mantissa would be rounded twice.
+     */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private CharSequence input;
+    private int pos;
+    private int end;
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean escaped;
+
+    /**
+     * Starts tokenizing a whole line.
+     *
+     * @param line the line to tokenize, without its line terminator
+     * @return this tokenizer
+     */
+    public CsvTokenizer reset(CharSequence line) {
+        return reset(line, 0, line.length());
+    }
+
+    /**
+     * Starts tokenizing the range {@code [start, end)} of the input.
+     *
+     * @param input the characters holding the line
+     * @param start the index of the first character of the line
+     * @param end   the index just past the last character of the line
+     * @return this tokenizer
+     */
+    public CsvTokenizer reset(CharSequence input, int start, int end) {
+        this.input = input;
+        this.pos = start;
+        this.end = end;
+        this.fieldStart = start;
+        this.fieldEnd = start;
+        this.escaped = false;
+        return this;
+    }
+
+    /**
+     * Moves to the next field of the line.
+     *
+     * @return true if there was another field, false at the end of the line
+     */
+    public boolean next() {
+        if (pos > end) {
+            return false;
+        }
+        escaped = false;
+        if (pos < end && input.charAt(pos) == '"') {
+            int i = pos + 1;
+            fieldStart = i;
+            while (i < end) {
+                if (input.charAt(i) == '"') {
+                    if (i + 1 < end && input.charAt(i + 1) == '"') {
+                        escaped = true;
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                i++;
+            }
+            fieldEnd = Math.min(i, end);
+            while (i < end && input.charAt(i) != ',') {
+                i++;
+            }
+            pos = i + 1;
+            return true;
+        }
+        int i = pos;
+        while (i < end && input.charAt(i) != ',') {
+            i++;
+        }
+        fieldStart = pos;
+        fieldEnd = i;
+        if (i == end && fieldEnd > fieldStart && input.charAt(fieldEnd - 1) == '\r') {
+            fieldEnd--;
+        }
+        pos = i + 1;
+        return true;
+    }
+
+    /**
+     * Returns the index of the first character of the current field, after any opening quote.
+     *
+     * @return the start of the field
+     */
+    public int start() {
+        return fieldStart;
+    }
+
+    /**
+     * Returns the index just past the current field, before any closing quote.
+     *
+     * @return the end of the field
+     */
+    public int end() {
+        return fieldEnd;
+    }
+
+    /**
+     * Checks whether the current field contains doubled quotes, in which case its raw range
+     * differs from its text.
+     *
+     * @return true if {@link #text()} must be used to read the field
+     */
+    public boolean hasEscapes() {
+        return escaped;
+    }
+
+    /**
+     * Returns the first character of the current field, or 0 if it is empty.
+     *
+     * @return the first character
+     */
+    public char firstChar() {
+        return fieldStart < fieldEnd ? input.charAt(fieldStart) : 0;
+    }
+
+    /**
+     * Compares the current field to a string without creating a String for the field.
+     *
+     * @param text the text to compare with
+     * @return true if the field equals the text
+     */
+    public boolean textEquals(String text) {
+        if (escaped || fieldEnd - fieldStart != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (input.charAt(fieldStart + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the current field as a String, with doubled quotes unescaped.
+     *
+     * @return the field text
+     */
+    public String text() {
+        String raw = input.subSequence(fieldStart, fieldEnd).toString();
+        return escaped ? raw.replace("\"\"", "\"") : raw;
+    }
+
+    /**
+     * Parses the current field as a decimal integer.
+     *
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not an integer
+     */
+    public int intValue() {
+        long value = longValue();
+        if (value != (int) value) {
+            throw new NumberFormatException("Integer out of range: " + text());
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the current field as a decimal long.
+     *
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not an integer
+     */
+    public long longValue() {
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && input.charAt(i) == '-';
+        if (negative || (i < fieldEnd && input.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == fieldEnd || fieldEnd - i > 18) {
+            return Long.parseLong(text());
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + text() + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the current field as a double. Plain decimals such as {@code -12.75} are parsed
+     * in place when they have at most 15 digits, giving the same result as
+     * {@link Double#parseDouble}; anything else (exponents, longer mantissas, surrounding
+     * spaces) falls back to it.
+     *
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double doubleValue() {
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && input.charAt(i) == '-';
+        if (negative || (i < fieldEnd && input.charAt(i) == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < fieldEnd; i++) {
+            char c = input.charAt(i);
+            if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c >= '0' && c <= '9' && digits < MAX_FAST_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else {
+                return Double.parseDouble(text());
+            }
+        }
+        if (digits == 0) {
+            return Double.parseDouble(text());
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Quotes a value for writing to CSV if it contains a comma, a quote or a line break.
+     *
+     * @param value the value to write
+     * @return the value, quoted and escaped if necessary
+     */
+    public static String quote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -3,14 +3,66 @@ package edu.rit.croatia.swen383.g3.util;
 import edu.rit.croatia.swen383.g3.model.*;
 
 import java.io.*;
+import java.nio.file.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Predicate;
 /**
  * The FileHandler class handles reading and writing data for the Diet Manager application.
  * It supports exercises, foods (basic and recipes), logs (food entries, exercise entries, weight, and calorie goals).
- * Data is stored in CSV files for persistence.
+ * Data is stored in CSV files for persistence. All readers share {@link CsvTokenizer}, so
+ * names containing commas are written quoted and read back intact.
  */
 public class FileHandler {
+    /**
+     * Log files larger than this are loaded through {@link MappedLogReader}.
+     */
+    private static final long MAPPED_LOAD_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Log files larger than this are parsed in parallel chunks; smaller ones on one thread.
+     */
+    private static final long PARALLEL_LOAD_THRESHOLD = 8 * 1024 * 1024;
+
+    private int loadParallelism = Integer.getInteger("dietmanager.loadParallelism",
+            Runtime.getRuntime().availableProcessors());
+    private boolean durableWrites = AtomicFiles.durableByDefault();
+
+    /**
+     * Sets the number of threads used to parse large log files.
+     * Defaults to the {@code dietmanager.loadParallelism} system property, or the number
+     * of available processors.
+     *
+     * @param loadParallelism the number of parsing threads; 1 disables parallel loading
+     */
+    public void setLoadParallelism(int loadParallelism) {
+        if (loadParallelism < 1) {
+            throw new IllegalArgumentException("Load parallelism must be at least 1: " + loadParallelism);
+        }
+        this.loadParallelism = loadParallelism;
+    }
+
+    /**
+     * Sets whether written files are forced to disk before they replace the old ones.
+     * Files are always replaced atomically; durable writes also survive a power loss.
+     * Defaults to the {@code dietmanager.durableSaves} system property.
+     *
+     * @param durableWrites true to force each written file to disk
+     * @see AtomicFiles
+     */
+    public void setDurableWrites(boolean durableWrites) {
+        this.durableWrites = durableWrites;
+    }
+
+    /**
+     * Returns whether written files are forced to disk.
+     *
+     * @return true if writes are durable
+     */
+    public boolean isDurableWrites() {
+        return durableWrites;
+    }
+
     /**
      * Reads exercises from a CSV file and returns a list of Exercise objects.
      * Only lines starting with "e," are processed.
@@ -24,15 +76,18 @@ public class FileHandler {
     // Reading exercises from exercise.csv
     public List<Exercise> readExercises(String filename) {
         List<Exercise> exercises = new ArrayList<>();
+        CsvTokenizer csv = new CsvTokenizer();
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                if (line.startsWith("e,")) {
-                    String[] parts = line.split(",");
-                    if (parts.length == 3) {
-                        String name = parts[1];
-                        double cal = Double.parseDouble(parts[2]);
-                        exercises.add(new Exercise(name, cal));
+                csv.reset(line);
+                if (csv.next() && csv.textEquals("e") && csv.next()) {
+                    String name = csv.text();
+                    if (csv.next()) {
+                        double cal = csv.doubleValue();
+                        if (!csv.next()) {
+                            exercises.add(new Exercise(name, cal));
+                        }
                     }
                 }
             }
@@ -51,18 +106,33 @@ public class FileHandler {
      * @param filename  the path to the exercise CSV file
      */
     public void writeExercises(List<Exercise> exercises, String filename) {
-        try (PrintWriter writer = new PrintWriter(filename)) {
-            for (Exercise e : exercises) {
-                writer.println("e," + e.getName() + "," + e.getCaloriesPerKgPerHour());
-            }
-        } catch (IOException e) {
-            System.out.println("Error writing exercises: " + e.getMessage());
+        writeLines(filename, formatExercises(exercises));
+    }
+
+    /**
+     * Formats a list of Exercise objects as CSV lines: e,exerciseName,caloriesPerKgPerHour
+     *
+     * @param exercises the list of exercises to format
+     * @return the CSV lines
+     */
+    public List<String> formatExercises(List<Exercise> exercises) {
+        List<String> lines = new ArrayList<>();
+        for (Exercise e : exercises) {
+            lines.add("e," + CsvTokenizer.quote(e.getName()) + "," + e.getCaloriesPerKgPerHour());
         }
+        return lines;
     }
 
    /**
      * Reads logs from a CSV file and populates the Logs object with food logs, exercise logs, weight, and calorie goals.
-     * It matches food and exercise names to existing objects from the Foods and Exercises lists.
+     * It matches food and exercise names (case-insensitive) to existing objects from the Foods and
+     * Exercises lists. Foods are looked up through a name map built once per load. Entries whose
+     * name cannot be matched are skipped and counted in the returned report.
+     * Lines starting with '#' are comments and blank lines are ignored; a line that cannot be
+     * parsed is skipped and counted in the report. Files over 1 MB are parsed from a
+     * memory-mapped buffer by {@link MappedLogReader} to avoid per-line allocations, and files
+     * over 8 MB are split into chunks parsed on {@link #setLoadParallelism(int)} threads.
+     * Both paths handle bad lines the same way.
      *
      * CSV formats:
      * - Food log:       yyyy,mm,dd,f,foodName,servings
@@ -74,61 +144,200 @@ public class FileHandler {
      * @param foods     the list of available Food objects for matching food logs
      * @param exercises the Exercises object containing available Exercise objects
      * @param logs      the Logs object to populate
+     * @return a report of the names that could not be resolved and the lines that could not be parsed
      */
-    public void readLogs(String filename, List<Food> foods, Exercises exercises, Logs logs) {
+    public LogLoadReport readLogs(String filename, List<Food> foods, Exercises exercises, Logs logs) {
+        return readLogs(filename, foods, exercises, logs, LogLineFilter.ALL);
+    }
+
+    /**
+     * Reads the log lines accepted by a filter from a CSV file into the Logs object.
+     * Uses the same formats and loading strategy as {@link #readLogs(String, List, Exercises, Logs)}.
+     *
+     * @param filename  the path to the log CSV file
+     * @param foods     the list of available Food objects for matching food logs
+     * @param exercises the Exercises object containing available Exercise objects
+     * @param logs      the Logs object to populate
+     * @param filter    selects the lines to apply
+     * @return a report of the names that could not be resolved and the lines that could not be parsed
+     */
+    public LogLoadReport readLogs(String filename, List<Food> foods, Exercises exercises, Logs logs,
+            LogLineFilter filter) {
+        File file = new File(filename);
+        if (file.length() > MAPPED_LOAD_THRESHOLD) {
+            int parallelism = file.length() > PARALLEL_LOAD_THRESHOLD ? loadParallelism : 1;
+            try {
+                return new MappedLogReader(foods, exercises).read(filename, logs, parallelism, filter);
+            } catch (IOException e) {
+                System.out.println("Could not map logs, reading line by line: " + e.getMessage());
+            }
+        }
+        LogLoadReport report = new LogLoadReport();
+        Map<String, Food> foodsByName = indexFoods(foods);
+        CsvTokenizer csv = new CsvTokenizer();
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    int year = Integer.parseInt(parts[0]);
-                    int month = Integer.parseInt(parts[1]);
-                    int day = Integer.parseInt(parts[2]);
-                    LocalDate date = LocalDate.of(year, month, day);
-
-                    switch (parts[3]) {
-                        case "f": { // Food entry
-                            String foodName = parts[4];
-                            double servings = Double.parseDouble(parts[5]);
-                            Food food = foods.stream()
-                                    .filter(f -> f.getName().equalsIgnoreCase(foodName))
-                                    .findFirst().orElse(null);
-                            if (food != null) {
-                                logs.addLog(new Log(date, food, servings));
-                            }
-                            break;
-                        }
-                        case "e": { // Exercise entry
-                            String exerciseName = parts[4];
-                            double minutes = Double.parseDouble(parts[5]);
-                            Exercise exercise = exercises.getAllExercises().stream()
-                                    .filter(e -> e.getName().equalsIgnoreCase(exerciseName))
-                                    .findFirst().orElse(null);
-                            if (exercise != null) {
-                                logs.addExerciseLog(date, new ExerciseEntry(exercise, minutes));
-                            }
-                            break;
-                        }
-                        case "w": { // Weight entry
-                            double weight = Double.parseDouble(parts[4]);
-                            logs.setWeightForDate(date, weight);
-                            break;
-                        }
-                        case "c": { // Calorie goal entry
-                            double calorieGoal = Double.parseDouble(parts[4]);
-                            logs.setCalorieGoalForDate(date, calorieGoal);
-                            break;
-                        }
-                    }
-                }
+                applyLogLine(line, csv, filter, foodsByName, exercises, logs, report);
             }
         } catch (IOException e) {
             System.out.println("Error reading logs: " + e.getMessage());
         }
+        return report;
+    }
+
+    /**
+     * Reads the logs dated within a range. When the file has a current {@link LogIndex},
+     * only the part of the file around the range is read; otherwise the whole file is scanned.
+     *
+     * @param filename  the path to the log CSV file
+     * @param from      the first date (inclusive)
+     * @param to        the last date (inclusive)
+     * @param filter    selects which lines in the range are applied
+     * @param foods     the list of available Food objects for matching food logs
+     * @param exercises the Exercises object containing available Exercise objects
+     * @param logs      the Logs object to populate
+     * @return a report of the names that could not be matched and the lines that could not be parsed
+     */
+    public LogLoadReport readLogs(String filename, LocalDate from, LocalDate to, LogLineFilter filter,
+            List<Food> foods, Exercises exercises, Logs logs) {
+        LogLoadReport report = new LogLoadReport();
+        List<String> lines;
+        try {
+            lines = LogIndex.readLines(filename, from, to);
+        } catch (IOException e) {
+            System.out.println("Error reading logs: " + e.getMessage());
+            return report;
+        }
+        Map<String, Food> foodsByName = indexFoods(foods);
+        CsvTokenizer csv = new CsvTokenizer();
+        for (String line : lines) {
+            applyLogLine(line, csv, filter, foodsByName, exercises, logs, report);
+        }
+        return report;
     }
 
     /**
-     * Writes all logs (food logs, exercise logs, weight, and calorie goals) from the Logs object to a CSV file.
+     * Indexes foods by case-folded name. If several foods share a name, the first one wins.
+     *
+     * @param foods the foods to index
+     * @return a map from folded name to food
+     */
+    Map<String, Food> indexFoods(List<Food> foods) {
+        Map<String, Food> foodsByName = new HashMap<>();
+        for (Food food : foods) {
+            foodsByName.putIfAbsent(Names.fold(food.getName()), food);
+        }
+        return foodsByName;
+    }
+
+    /**
+     * Applies one line of a log file. Blank lines and '#' comments are skipped; a line that
+     * cannot be parsed is recorded in the report and skipped, as {@link MappedLogReader} does.
+     */
+    private void applyLogLine(String line, CsvTokenizer csv, LogLineFilter filter, Map<String, Food> foodsByName,
+            Exercises exercises, Logs logs, LogLoadReport report) {
+        if (line.isBlank() || line.startsWith("#")) {
+            return;
+        }
+        try {
+            applyLogLine(csv.reset(line), false, filter, foodsByName, exercises, logs, report);
+        } catch (RuntimeException e) {
+            report.malformedLine(line);
+        }
+    }
+
+    /**
+     * Applies one log line to the Logs object, either adding or removing the entry it describes.
+     * Weight and calorie goal lines always set the value for their date. Lines of unknown
+     * type are ignored.
+     *
+     * @param csv         a tokenizer positioned just before the year field
+     * @param remove      true to remove a matching food or exercise entry instead of adding it
+     * @param filter      selects the lines to apply
+     * @param foodsByName the available foods keyed by case-folded name
+     * @param exercises   the available exercises
+     * @param logs        the Logs object to update
+     * @param report      collects names that could not be resolved
+     */
+    void applyLogLine(CsvTokenizer csv, boolean remove, LogLineFilter filter, Map<String, Food> foodsByName,
+            Exercises exercises, Logs logs, LogLoadReport report) {
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        int year = csv.intValue();
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        int month = csv.intValue();
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        int day = csv.intValue();
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        char type = csv.firstChar();
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        if (!filter.accept(year, month, type)) {
+            return;
+        }
+        LocalDate date = LocalDate.of(year, month, day);
+
+        switch (type) {
+            case 'f': { // Food entry
+                String foodName = csv.text();
+                double servings = nextDouble(csv);
+                Food food = foodsByName.get(Names.fold(foodName));
+                if (food == null) {
+                    report.unresolvedFood(foodName);
+                } else if (!remove) {
+                    logs.addLog(new Log(date, food, servings));
+                } else {
+                    logs.getLogForDate(date).stream()
+                            .filter(l -> l.getFood() == food && l.getServings() == servings)
+                            .findFirst().ifPresent(logs::removeLog);
+                }
+                break;
+            }
+            case 'e': { // Exercise entry
+                String exerciseName = csv.text();
+                double minutes = nextDouble(csv);
+                Exercise exercise = exercises.findExerciseByName(exerciseName);
+                if (exercise == null) {
+                    report.unresolvedExercise(exerciseName);
+                } else if (!remove) {
+                    logs.addExerciseLog(date, new ExerciseEntry(exercise, minutes));
+                } else {
+                    logs.getExercisesForDate(date).stream()
+                            .filter(x -> x.getExercise() == exercise && x.getMinutes() == minutes)
+                            .findFirst().ifPresent(x -> logs.removeExerciseLog(date, x));
+                }
+                break;
+            }
+            case 'w': { // Weight entry
+                logs.setWeightForDate(date, csv.doubleValue());
+                break;
+            }
+            case 'c': { // Calorie goal entry
+                logs.setCalorieGoalForDate(date, csv.doubleValue());
+                break;
+            }
+        }
+    }
+
+    private static double nextDouble(CsvTokenizer csv) {
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        return csv.doubleValue();
+    }
+
+    /**
+     * Writes all logs (food logs, exercise logs, weight, and calorie goals) from the Logs object to a CSV file,
+     * sorted by date, with a {@link LogIndex} sidecar for seeking to a date.
      *
      * CSV formats:
      * - Food log:       yyyy,mm,dd,f,foodName,servings
@@ -140,118 +349,483 @@ public class FileHandler {
      * @param logs     the Logs object containing log entries to write
      */
     public void writeLogs(String filename, Logs logs) {
-        try (PrintWriter writer = new PrintWriter(filename)) {
-            // Write food logs
-            for (Log log : logs.getAllLogs()) {
-                String year = String.valueOf(log.getDate().getYear());
-                String month = String.format("%02d", log.getDate().getMonthValue());
-                String day = String.format("%02d", log.getDate().getDayOfMonth());
-                writer.println(year + "," + month + "," + day + ",f," +
-                        log.getFood().getName() + "," +
-                        log.getServings());
+        writeLogLines(filename, formatLogs(logs));
+    }
+
+    /**
+     * Writes log lines to a file, replacing its contents atomically, and indexes them.
+     * If the lines are sorted by date, a {@link LogIndex} sidecar is written next to the
+     * file; otherwise any old sidecar is removed.
+     *
+     * @param filename the path to the log CSV file
+     * @param lines    the log lines to write
+     */
+    public void writeLogLines(String filename, List<String> lines) {
+        LogIndex.Builder index = new LogIndex.Builder(LogIndex.DEFAULT_STRIDE);
+        Path path = Paths.get(filename);
+        try {
+            synchronized (LogIndex.lockFor(path)) {
+                AtomicFiles.write(path, durableWrites, writer -> {
+                    for (String line : lines) {
+                        writeLogLine(writer, line, index);
+                    }
+                });
+                index.write(path, durableWrites);
             }
+        } catch (IOException e) {
+            System.out.println("Error writing " + filename + ": " + e.getMessage());
+        }
+    }
 
-            // Write exercise logs
-            for (LocalDate date : logs.getAllExerciseLogDates()) {
-                String year = String.valueOf(date.getYear());
-                String month = String.format("%02d", date.getMonthValue());
-                String day = String.format("%02d", date.getDayOfMonth());
-                for (ExerciseEntry entry : logs.getExercisesForDate(date)) {
-                    writer.println(year + "," + month + "," + day + ",e," +
-                            entry.getExercise().getName() + "," +
-                            entry.getMinutes());
-                }
+    /**
+     * Formats all logs as CSV lines sorted by date, in the order written by
+     * {@link #writeLogs(String, Logs)}. Each date lists its food logs, exercise logs,
+     * weight and calorie goal, in that order.
+     *
+     * @param logs the Logs object containing log entries to format
+     * @return the CSV lines
+     */
+    public List<String> formatLogs(Logs logs) {
+        NavigableSet<LocalDate> dates = new TreeSet<>(logs.getAllLogDates());
+        dates.addAll(logs.getAllExerciseLogDates());
+        dates.addAll(logs.getAllWeightDates());
+        dates.addAll(logs.getAllCalorieGoalDates());
+        List<String> lines = new ArrayList<>();
+        for (LocalDate date : dates) {
+            formatEntries(logs, date, lines);
+            Double weight = logs.getWeightForExactDate(date);
+            if (weight != null) {
+                lines.add(formatWeightLog(date, weight));
             }
+            Double goal = logs.getCalorieGoalForExactDate(date);
+            if (goal != null) {
+                lines.add(formatCalorieGoalLog(date, goal));
+            }
+        }
+        return lines;
+    }
 
-            // Write weights
-            for (LocalDate date : logs.getAllWeightDates()) {
-                String year = String.valueOf(date.getYear());
-                String month = String.format("%02d", date.getMonthValue());
-                String day = String.format("%02d", date.getDayOfMonth());
-                writer.println(year + "," + month + "," + day + ",w," +
-                        logs.getWeightForExactDate(date));
+    /**
+     * Formats the food and exercise logs of a date range as CSV lines sorted by date,
+     * each date listing its food logs first.
+     *
+     * @param logs the Logs object containing log entries to format
+     * @param from the first date (inclusive)
+     * @param to   the last date (inclusive)
+     * @return the CSV lines
+     */
+    public List<String> formatLogs(Logs logs, LocalDate from, LocalDate to) {
+        NavigableSet<LocalDate> dates = new TreeSet<>(logs.getAllLogDates().subSet(from, true, to, true));
+        dates.addAll(logs.getAllExerciseLogDates().subSet(from, true, to, true));
+        List<String> lines = new ArrayList<>();
+        for (LocalDate date : dates) {
+            formatEntries(logs, date, lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Formats the food and then exercise logs of one date. Only dates listed by the logs
+     * are looked up, so formatting never pages in months that are not loaded.
+     */
+    private void formatEntries(Logs logs, LocalDate date, List<String> lines) {
+        if (logs.getAllLogDates().contains(date)) {
+            for (Log log : logs.getLogForDate(date)) {
+                lines.add(formatFoodLog(date, log));
+            }
+        }
+        if (logs.getAllExerciseLogDates().contains(date)) {
+            for (ExerciseEntry entry : logs.getExercisesForDate(date)) {
+                lines.add(formatExerciseLog(date, entry));
             }
+        }
+    }
+
+    /**
+     * Formats the weight and calorie goal logs as CSV lines, weights first.
+     *
+     * @param logs the Logs object containing log entries to format
+     * @return the CSV lines
+     */
+    public List<String> formatSeries(Logs logs) {
+        List<String> lines = new ArrayList<>();
+        for (LocalDate date : logs.getAllWeightDates()) {
+            lines.add(formatWeightLog(date, logs.getWeightForExactDate(date)));
+        }
+        for (LocalDate date : logs.getAllCalorieGoalDates()) {
+            lines.add(formatCalorieGoalLog(date, logs.getCalorieGoalForExactDate(date)));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes lines of text to a file, replacing its contents atomically.
+     *
+     * @param filename the path to the file
+     * @param lines    the lines to write
+     */
+    public void writeLines(String filename, List<String> lines) {
+        try {
+            AtomicFiles.write(Paths.get(filename), lines, durableWrites);
+        } catch (IOException e) {
+            System.out.println("Error writing " + filename + ": " + e.getMessage());
+        }
+    }
 
-            // Write calorie goals
-            for (LocalDate date : logs.getAllCalorieGoalDates()) {
-                String year = String.valueOf(date.getYear());
-                String month = String.format("%02d", date.getMonthValue());
-                String day = String.format("%02d", date.getDayOfMonth());
-                writer.println(year + "," + month + "," + day + ",c," +
-                        logs.getCalorieGoalForExactDate(date));
+    /**
+     * Rewrites a log CSV file from the lines of an existing one that a filter keeps,
+     * merged with new lines. New lines must be sorted by date; each is written before the
+     * first kept line with a later date, so a date-sorted file stays sorted and keeps its
+     * {@link LogIndex}. The target is replaced atomically, so readers never see a partly
+     * written file.
+     *
+     * @param source the path to the existing log CSV file
+     * @param target the path to write; may be the same as {@code source}
+     * @param keep   selects the existing lines to carry over
+     * @param lines  the new lines, sorted by date
+     */
+    public void mergeLogs(String source, String target, LogLineFilter keep, List<String> lines) {
+        CsvTokenizer csv = new CsvTokenizer();
+        mergeLogs(source, target, line -> keepsLine(csv.reset(line), keep), lines);
+    }
+
+    /**
+     * Replaces the food and exercise lines of one date in a log CSV file, keeping every
+     * other line. The file is rewritten atomically through {@link #mergeLogs}, so a sorted
+     * file keeps its {@link LogIndex}.
+     *
+     * @param filename the path to the log CSV file
+     * @param date     the date whose entries are replaced
+     * @param lines    the new food and exercise lines of the date; empty to remove them
+     */
+    public void replaceEntries(String filename, LocalDate date, List<String> lines) {
+        int key = LogIndex.dateKey(date);
+        CsvTokenizer csv = new CsvTokenizer();
+        mergeLogs(filename, filename, line -> {
+            int lineKey = LogIndex.dateKey(csv.reset(line));
+            if (lineKey < 0 || !csv.next()) {
+                return false; // comments and malformed lines are dropped
             }
+            char type = csv.firstChar();
+            return lineKey != key || (type != 'f' && type != 'e');
+        }, lines);
+    }
 
+    private void mergeLogs(String source, String target, Predicate<String> keep, List<String> lines) {
+        LogIndex.Builder index = new LogIndex.Builder(LogIndex.DEFAULT_STRIDE);
+        Path path = Paths.get(target);
+        try {
+            synchronized (LogIndex.lockFor(path)) {
+                AtomicFiles.write(path, durableWrites, writer -> mergeLines(source, keep, writer, lines, index));
+                index.write(path, durableWrites);
+            }
         } catch (IOException e) {
-            System.out.println("Error writing logs: " + e.getMessage());
+            System.out.println("Error writing " + target + ": " + e.getMessage());
         }
     }
 
+    private static void mergeLines(String source, Predicate<String> keep, BufferedWriter writer, List<String> lines,
+            LogIndex.Builder index) throws IOException {
+        CsvTokenizer csv = new CsvTokenizer();
+        int next = 0;
+        if (Files.exists(Paths.get(source))) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(source))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (keep.test(line)) {
+                        int key = LogIndex.dateKey(csv.reset(line));
+                        while (next < lines.size() && LogIndex.dateKey(csv.reset(lines.get(next))) < key) {
+                            writeLogLine(writer, lines.get(next++), index);
+                        }
+                        writeLogLine(writer, line, index);
+                    }
+                }
+            }
+        }
+        for (; next < lines.size(); next++) {
+            writeLogLine(writer, lines.get(next), index);
+        }
+    }
+
+    private static void writeLogLine(BufferedWriter writer, String line, LogIndex.Builder index) throws IOException {
+        writer.write(line);
+        writer.newLine();
+        index.add(line);
+    }
+
+    private static boolean keepsLine(CsvTokenizer csv, LogLineFilter keep) {
+        try {
+            if (!csv.next()) {
+                return false;
+            }
+            int year = csv.intValue();
+            if (!csv.next()) {
+                return false;
+            }
+            int month = csv.intValue();
+            return csv.next() && csv.next() && keep.accept(year, month, csv.firstChar());
+        } catch (NumberFormatException e) {
+            return false; // comments and malformed lines are dropped
+        }
+    }
+
+    /**
+     * Formats the given food and then exercise entries of one date as CSV lines.
+     *
+     * @param date            the date of the entries
+     * @param foodLogs        the food logs
+     * @param exerciseEntries the exercise entries
+     * @return the CSV lines
+     */
+    public List<String> formatEntries(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseEntries) {
+        List<String> lines = new ArrayList<>(foodLogs.size() + exerciseEntries.size());
+        for (Log log : foodLogs) {
+            lines.add(formatFoodLog(date, log));
+        }
+        for (ExerciseEntry entry : exerciseEntries) {
+            lines.add(formatExerciseLog(date, entry));
+        }
+        return lines;
+    }
+
+    /**
+     * Formats a food log as a CSV line: yyyy,mm,dd,f,foodName,servings
+     *
+     * @param date the date of the entry
+     * @param log  the food log
+     * @return the CSV line
+     */
+    public String formatFoodLog(LocalDate date, Log log) {
+        return formatDate(date) + ",f," + CsvTokenizer.quote(log.getFood().getName()) + "," + log.getServings();
+    }
+
+    /**
+     * Formats an exercise log as a CSV line: yyyy,mm,dd,e,exerciseName,minutes
+     *
+     * @param date  the date of the entry
+     * @param entry the exercise entry
+     * @return the CSV line
+     */
+    public String formatExerciseLog(LocalDate date, ExerciseEntry entry) {
+        return formatDate(date) + ",e," + CsvTokenizer.quote(entry.getExercise().getName()) + "," + entry.getMinutes();
+    }
+
+    /**
+     * Formats a weight entry as a CSV line: yyyy,mm,dd,w,weight
+     *
+     * @param date   the date of the entry
+     * @param weight the weight in kilograms
+     * @return the CSV line
+     */
+    public String formatWeightLog(LocalDate date, double weight) {
+        return formatDate(date) + ",w," + weight;
+    }
+
+    /**
+     * Formats a calorie goal entry as a CSV line: yyyy,mm,dd,c,calorieGoal
+     *
+     * @param date the date of the entry
+     * @param goal the calorie goal
+     * @return the CSV line
+     */
+    public String formatCalorieGoalLog(LocalDate date, double goal) {
+        return formatDate(date) + ",c," + goal;
+    }
+
+    private String formatDate(LocalDate date) {
+        return date.getYear() + "," + String.format("%02d", date.getMonthValue()) + ","
+                + String.format("%02d", date.getDayOfMonth());
+    }
+
     /**
      * Reads food data from a CSV file and returns a list of Food objects.
      * Performs a two-pass read:
-     * 1. Loads all basic foods.
-     * 2. Then loads recipes, using already-loaded foods as ingredients.
+     * 1. Loads all basic foods and creates an empty recipe for every recipe line.
+     * 2. Fills in the recipes in dependency order, so a recipe may use any food
+     *    or recipe in the file regardless of where it is defined.
+     * Ingredient names are resolved case-insensitively through a name index, and the
+     * recipe dependency graph is ordered topologically, so loading is linear in the
+     * size of the file. Ingredients that are unknown or that would make a recipe
+     * contain itself are reported and skipped.
      *
      * CSV Format:
      * - Basic food: b,name,calories,fat,carbs,protein
      * - Recipe:     r,name,ingredient1,amount1,ingredient2,amount2,...
      *
      * @param filename the path to the foods.csv file
-     * @return a list of all loaded foods (basic and recipes)
+     * @return a list of all loaded foods (basic foods first, then recipes, each in file order)
      */
     public List<Food> readFoods(String filename) {
         List<Food> loadedFoods = new ArrayList<>();
-        List<String> recipeLines = new ArrayList<>();
+        List<RecipeLine> recipeLines = new ArrayList<>();
+        CsvTokenizer csv = new CsvTokenizer();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
 
             // FIRST PASS: Load all BasicFoods
             while ((line = reader.readLine()) != null) {
-                if (line.startsWith("b,")) {
-                    String[] parts = line.split(",");
-                    if (parts.length == 6) {
-                        String name = parts[1];
-                        double cal = Double.parseDouble(parts[2]);
-                        double fat = Double.parseDouble(parts[3]);
-                        double carb = Double.parseDouble(parts[4]);
-                        double protein = Double.parseDouble(parts[5]);
-                        loadedFoods.add(new BasicFood(name, cal, fat, carb, protein));
+                csv.reset(line);
+                if (!csv.next()) {
+                    continue;
+                }
+                if (csv.textEquals("b")) {
+                    BasicFood food = parseBasicFood(csv);
+                    if (food != null) {
+                        loadedFoods.add(food);
+                    }
+                } else if (csv.textEquals("r")) {
+                    RecipeLine recipeLine = parseRecipeLine(csv);
+                    if (recipeLine != null) {
+                        recipeLines.add(recipeLine); // Store for second pass
                     }
-                } else if (line.startsWith("r,")) {
-                    recipeLines.add(line); // Store for second pass
                 }
             }
         } catch (IOException e) {
             System.out.println("Error reading foods.csv: " + e.getMessage());
         }
 
-        // SECOND PASS: Process recipes using already loaded ingredients
-        for (String line : recipeLines) {
-            String[] parts = line.split(",");
-            if (parts.length >= 4 && parts.length % 2 == 0) {
-                String recipeName = parts[1];
-                Recipe recipe = new Recipe(recipeName);
+        // Index every food by name; basic foods take precedence over recipes with the same name
+        Map<String, Food> foodsByName = new HashMap<>();
+        for (Food food : loadedFoods) {
+            foodsByName.putIfAbsent(Names.fold(food.getName()), food);
+        }
+        Recipe[] recipes = new Recipe[recipeLines.size()];
+        Map<Recipe, Integer> recipeIndex = new HashMap<>();
+        for (int i = 0; i < recipes.length; i++) {
+            recipes[i] = new Recipe(recipeLines.get(i).name());
+            recipeIndex.put(recipes[i], i);
+            loadedFoods.add(recipes[i]);
+            foodsByName.putIfAbsent(Names.fold(recipes[i].getName()), recipes[i]);
+        }
 
-                for (int i = 2; i < parts.length; i += 2) {
-                    String ingredientName = parts[i];
-                    double amount = Double.parseDouble(parts[i + 1]);
+        // Build the dependency graph: an edge from each nested recipe to the recipes using it
+        List<List<Integer>> dependents = new ArrayList<>();
+        int[] pendingIngredients = new int[recipes.length];
+        for (int i = 0; i < recipes.length; i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < recipes.length; i++) {
+            for (String ingredientName : recipeLines.get(i).ingredients()) {
+                Integer nested = recipeIndex.get(foodsByName.get(Names.fold(ingredientName)));
+                if (nested != null) {
+                    dependents.get(nested).add(i);
+                    pendingIngredients[i]++;
+                }
+            }
+        }
 
-                    for (Food f : loadedFoods) {
-                        if (f.getName().equalsIgnoreCase(ingredientName)) {
-                            recipe.add(f, amount);
-                            break;
-                        }
-                    }
+        // SECOND PASS: Fill recipes in topological order so nested recipes are complete first
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < recipes.length; i++) {
+            if (pendingIngredients[i] == 0) {
+                ready.add(i);
+            }
+        }
+        boolean[] filled = new boolean[recipes.length];
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            fillRecipe(recipes[i], recipeLines.get(i), foodsByName);
+            filled[i] = true;
+            for (int dependent : dependents.get(i)) {
+                if (--pendingIngredients[dependent] == 0) {
+                    ready.add(dependent);
                 }
+            }
+        }
 
-                loadedFoods.add(recipe);
+        // Whatever is left is part of (or depends on) a cycle; Recipe.add rejects the closing edges
+        for (int i = 0; i < recipes.length; i++) {
+            if (!filled[i]) {
+                System.out.println("Recipe cycle detected involving: " + recipes[i].getName());
+                fillRecipe(recipes[i], recipeLines.get(i), foodsByName);
             }
         }
 
         return loadedFoods;
     }
 
+    /**
+     * A recipe line read from foods.csv whose ingredients have not been resolved yet.
+     *
+     * @param name        the recipe name
+     * @param ingredients the ingredient names
+     * @param amounts     the servings of each ingredient
+     */
+    private record RecipeLine(String name, List<String> ingredients, double[] amounts) {
+    }
+
+    /**
+     * Parses the fields of a basic food line after the leading "b".
+     *
+     * @param csv the tokenizer positioned on the "b" field
+     * @return the food, or null if the line does not have exactly five more fields
+     */
+    private BasicFood parseBasicFood(CsvTokenizer csv) {
+        double[] values = new double[4];
+        if (!csv.next()) {
+            return null;
+        }
+        String name = csv.text();
+        for (int i = 0; i < values.length; i++) {
+            if (!csv.next()) {
+                return null;
+            }
+            values[i] = csv.doubleValue();
+        }
+        return csv.next() ? null : new BasicFood(name, values[0], values[1], values[2], values[3]);
+    }
+
+    /**
+     * Parses the fields of a recipe line after the leading "r".
+     *
+     * @param csv the tokenizer positioned on the "r" field
+     * @return the recipe line, or null if it has no ingredients or an ingredient without an amount
+     */
+    private RecipeLine parseRecipeLine(CsvTokenizer csv) {
+        if (!csv.next()) {
+            return null;
+        }
+        String name = csv.text();
+        List<String> ingredients = new ArrayList<>();
+        List<Double> amounts = new ArrayList<>();
+        while (csv.next()) {
+            ingredients.add(csv.text());
+            if (!csv.next()) {
+                return null;
+            }
+            amounts.add(csv.doubleValue());
+        }
+        if (ingredients.isEmpty()) {
+            return null;
+        }
+        return new RecipeLine(name, ingredients, amounts.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    /**
+     * Adds the ingredients listed on a recipe line to the recipe.
+     * Unknown ingredients and ingredients that would create a cycle are reported and skipped.
+     *
+     * @param recipe      the recipe to fill
+     * @param line        the parsed recipe line
+     * @param foodsByName all loaded foods keyed by case-folded name
+     */
+    private void fillRecipe(Recipe recipe, RecipeLine line, Map<String, Food> foodsByName) {
+        for (int i = 0; i < line.ingredients().size(); i++) {
+            String ingredientName = line.ingredients().get(i);
+            Food ingredient = foodsByName.get(Names.fold(ingredientName));
+            if (ingredient == null) {
+                System.out.println("Unknown ingredient " + ingredientName + " in recipe " + recipe.getName());
+                continue;
+            }
+            try {
+                recipe.add(ingredient, line.amounts()[i]);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Skipping ingredient: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Writes a list of Food objects (basic and recipes) to a CSV file.
      *
@@ -259,25 +833,35 @@ public class FileHandler {
      * @param filename the path to the foods.csv file
      */
     public void writeFoods(List<Food> foods, String filename) {
-        try (PrintWriter writer = new PrintWriter(filename)) {
-            for (Food food : foods) {
-                if (food instanceof BasicFood) {
-                    writer.println("b," + food.getName() + "," +
-                            food.getCalories() + "," +
-                            food.getFat() + "," +
-                            food.getCarbs() + "," +
-                            food.getProtein());
-                } else if (food instanceof Recipe recipe) {
-                    StringBuilder sb = new StringBuilder("r," + recipe.getName());
-                    for (Map.Entry<Food, Double> entry : recipe.getIngredientsWithServings()) {
-                        sb.append(",").append(entry.getKey().getName()).append(",").append(entry.getValue());
-                    }
-                    writer.println(sb);
+        writeLines(filename, formatFoods(foods));
+    }
+
+    /**
+     * Formats a list of Food objects as CSV lines, basic foods as
+     * b,name,calories,fat,carbs,protein and recipes as r,name,ingredient,servings,...
+     *
+     * @param foods the list of foods to format
+     * @return the CSV lines
+     */
+    public List<String> formatFoods(List<Food> foods) {
+        List<String> lines = new ArrayList<>();
+        for (Food food : foods) {
+            if (food instanceof BasicFood) {
+                lines.add("b," + CsvTokenizer.quote(food.getName()) + "," +
+                        food.getCalories() + "," +
+                        food.getFat() + "," +
+                        food.getCarbs() + "," +
+                        food.getProtein());
+            } else if (food instanceof Recipe recipe) {
+                StringBuilder sb = new StringBuilder("r," + CsvTokenizer.quote(recipe.getName()));
+                for (Map.Entry<Food, Double> entry : recipe.getIngredientsWithServings()) {
+                    sb.append(",").append(CsvTokenizer.quote(entry.getKey().getName()))
+                            .append(",").append(entry.getValue());
                 }
+                lines.add(sb.toString());
             }
-        } catch (IOException e) {
-            System.out.println("Error writing to foods.csv: " + e.getMessage());
         }
+        return lines;
     }
 
 }
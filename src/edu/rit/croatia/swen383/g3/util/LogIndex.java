@@ -0,0 +1,333 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse index of a date-sorted log CSV file, kept in a sidecar file next to it
+ * ({@code log.csv.idx}). The index maps every {@value #DEFAULT_STRIDE}th distinct date to the
+ * byte offset of its first line, so a date range is read by seeking to the nearest indexed
+ * date before it and stopping after the range, instead of reading the whole file.
+ * <p>
+ * Sidecar format: a header {@code # dietmanager log index,1,length,modified} recording the
+ * size and modification time of the log file it was built for, followed by
+ * {@code yyyy-MM-dd,offset} lines. An index whose log file has changed since is ignored,
+ * and files that are not date-sorted get no index.
+ * <p>
+ * Writers replace the log file and its sidecar while holding {@link #lockFor} of the log file,
+ * and readers take it to open both, so a reader never pairs a sidecar with another version of
+ * the file it opened.
+ */
+public final class LogIndex {
+    /**
+     * Number of distinct dates between indexed dates.
+     */
+    public static final int DEFAULT_STRIDE = 32;
+
+    private static final String HEADER = "# dietmanager log index,1";
+    private static final String SUFFIX = ".idx";
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final NavigableMap<LocalDate, Long> offsets;
+
+    private LogIndex(NavigableMap<LocalDate, Long> offsets) {
+        this.offsets = offsets;
+    }
+
+    /**
+     * Opens the index of a log file.
+     *
+     * @param logFile the path to the log CSV file
+     * @return the index, or null if there is none or the log file changed after it was built
+     */
+    public static LogIndex open(String logFile) {
+        Path log = Paths.get(logFile);
+        synchronized (lockFor(log)) {
+            try {
+                return open(log, Files.size(log));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Opens the index of a log file if it was built for a file of the given size and the log
+     * file's current modification time. Callers hold {@link #lockFor} of the log file.
+     */
+    private static LogIndex open(Path log, long size) {
+        Path sidecar = sidecarFor(log);
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        CsvTokenizer csv = new CsvTokenizer();
+        try (BufferedReader reader = Files.newBufferedReader(sidecar)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER + ",")) {
+                return null;
+            }
+            csv.reset(header, HEADER.length() + 1, header.length());
+            if (!csv.next() || csv.longValue() != size
+                    || !csv.next() || csv.longValue() != Files.getLastModifiedTime(log).toMillis()) {
+                return null;
+            }
+            NavigableMap<LocalDate, Long> offsets = new TreeMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                csv.reset(line);
+                if (csv.next()) {
+                    LocalDate date = LocalDate.parse(csv.text());
+                    if (csv.next()) {
+                        offsets.put(date, csv.longValue());
+                    }
+                }
+            }
+            return new LogIndex(offsets);
+        } catch (IOException | RuntimeException e) {
+            return null; // A missing or damaged index only costs a full scan
+        }
+    }
+
+    /**
+     * Returns the lock writers of a log file hold while replacing it and its sidecar.
+     *
+     * @param logFile the path to the log CSV file
+     * @return the lock for that file
+     */
+    static Object lockFor(Path logFile) {
+        return LOCKS.computeIfAbsent(logFile.toAbsolutePath().normalize(), path -> new Object());
+    }
+
+    /**
+     * Returns the offset to start reading at to find every line dated on or after a date.
+     *
+     * @param date the first date wanted
+     * @return the offset of the nearest indexed date on or before {@code date}, or 0
+     */
+    public long offsetOf(LocalDate date) {
+        Map.Entry<LocalDate, Long> floor = offsets.floorEntry(date);
+        return floor == null ? 0 : floor.getValue();
+    }
+
+    /**
+     * Reads the lines of a log file dated within a range, in file order. Seeks to the range
+     * and stops after it when the file has a current index; otherwise scans the whole file.
+     *
+     * @param logFile the path to the log CSV file
+     * @param from    the first date (inclusive)
+     * @param to      the last date (inclusive)
+     * @return the lines, or an empty list if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readLines(String logFile, LocalDate from, LocalDate to) throws IOException {
+        Path log = Paths.get(logFile);
+        int first = dateKey(from);
+        int last = dateKey(to);
+        List<String> lines = new ArrayList<>();
+        CsvTokenizer csv = new CsvTokenizer();
+        LogIndex index;
+        FileChannel channel;
+        // The index is checked against the file actually opened, which a save may replace later
+        synchronized (lockFor(log)) {
+            try {
+                channel = FileChannel.open(log, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return lines;
+            }
+            try {
+                index = open(log, channel.size());
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        try (channel) {
+            if (index != null) {
+                channel.position(index.offsetOf(from));
+            }
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int key = dateKey(csv.reset(line));
+                if (key > last && index != null) {
+                    break; // Sorted: nothing later is in range
+                }
+                if (key >= first && key <= last) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the date fields of a log line.
+     *
+     * @param csv a tokenizer reset to the line
+     * @return the date as {@code yyyymmdd}, or -1 if the line has no valid date
+     */
+    static int dateKey(CsvTokenizer csv) {
+        try {
+            if (!csv.next()) {
+                return -1;
+            }
+            int year = csv.intValue();
+            if (!csv.next()) {
+                return -1;
+            }
+            int month = csv.intValue();
+            if (!csv.next()) {
+                return -1;
+            }
+            int day = csv.intValue();
+            if (year < 0 || year > 9999 || month < 1 || month > 12 || day < 1 || day > 31) {
+                return -1;
+            }
+            return year * 10000 + month * 100 + day;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static int dateKey(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    private static Path sidecarFor(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Collects the index while a log file is written. Each line must be passed to
+     * {@link #add(String)} in the order it is written.
+     */
+    static final class Builder {
+        private static final int SEPARATOR_LENGTH = System.lineSeparator().length();
+
+        private final int stride;
+        private final CsvTokenizer csv = new CsvTokenizer();
+        private final List<String> entries = new ArrayList<>();
+        private long offset;
+        private int lastKey = -1;
+        private int dates;
+        private boolean sorted = true;
+
+        /**
+         * Creates a builder indexing every {@code stride}th distinct date.
+         *
+         * @param stride the number of distinct dates between indexed dates
+         */
+        Builder(int stride) {
+            this.stride = stride;
+        }
+
+        /**
+         * Records the next line written to the log file.
+         *
+         * @param line the line, without its separator
+         */
+        void add(String line) {
+            int key = dateKey(csv.reset(line));
+            if (key >= 0) {
+                if (key < lastKey) {
+                    sorted = false;
+                } else if (key > lastKey) {
+                    LocalDate date = dates++ % stride == 0 ? toDate(key) : null;
+                    if (date != null) {
+                        entries.add(date + "," + offset);
+                    }
+                    lastKey = key;
+                }
+            }
+            offset += utf8Length(line) + SEPARATOR_LENGTH;
+        }
+
+        /**
+         * Writes the sidecar for the log file just written, or removes a stale one if the
+         * lines were not in date order. Must be called after the log file is in place.
+         *
+         * @param logFile the log file the lines were written to
+         * @param durable true to force the sidecar to disk
+         * @throws IOException if the sidecar cannot be written
+         */
+        void write(Path logFile, boolean durable) throws IOException {
+            Path sidecar = sidecarFor(logFile);
+            if (!sorted || entries.isEmpty()) {
+                Files.deleteIfExists(sidecar);
+                return;
+            }
+            List<String> lines = new ArrayList<>(entries.size() + 1);
+            lines.add(HEADER + "," + Files.size(logFile) + "," + Files.getLastModifiedTime(logFile).toMillis());
+            lines.addAll(entries);
+            AtomicFiles.write(sidecar, lines, durable);
+        }
+
+        /**
+         * Returns the date of a key, or null for an impossible date such as February 31st,
+         * which is then left out of the index; readers seek from an earlier entry instead.
+         */
+        private static LocalDate toDate(int key) {
+            try {
+                return LocalDate.of(key / 10000, key / 100 % 100, key % 100);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        private static int utf8Length(String line) {
+            int length = line.length();
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c >= 0x80) {
+                    if (c < 0x800) {
+                        length++;
+                    } else if (Character.isHighSurrogate(c)) {
+                        length += 2; // 4 bytes for the pair of 2 chars
+                        i++;
+                    } else {
+                        length += 2;
+                    }
+                }
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Prints the lines of a log file dated within a range.
+     * Usage: {@code LogIndex <log.csv> <from> [<to>]} with dates as {@code yyyy-MM-dd}.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: LogIndex <log.csv> <from> [<to>]");
+            return;
+        }
+        try {
+            LocalDate from = LocalDate.parse(args[1]);
+            LocalDate to = args.length == 3 ? LocalDate.parse(args[2]) : from;
+            for (String line : readLines(args[0], from, to)) {
+                System.out.println(line);
+            }
+        } catch (IOException | DateTimeException e) {
+            System.out.println("Error reading logs: " + e.getMessage());
+        }
+    }
+}
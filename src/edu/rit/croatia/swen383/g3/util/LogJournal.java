@@ -0,0 +1,371 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal for the log CSV file.
+ * Instead of rewriting the whole history on every save, each change to {@link Logs} is
+ * recorded as one line and appended to a journal file next to the snapshot.
+ * Once the journal grows past a threshold it is folded back into the snapshot on a
+ * background thread.
+ * <p>
+ * Journal format: {@code $crc,sequence,op,<log line>} where op is {@code +} (add or set)
+ * or {@code -} (remove), the log line uses the CSV format of {@link FileHandler#readLogs},
+ * and crc is the CRC-32, in hex, of everything after the first comma. A record whose
+ * checksum does not match, such as a final line cut short by a crash, is dropped. Lines
+ * without a checksum, written by earlier versions, are still replayed.
+ * The snapshot starts with a {@code # journal-sequence,n} comment naming the last record it
+ * contains, and records are replayed only in increasing sequence order, so recovery after a
+ * crash during compaction never applies a record twice.
+ * <p>
+ * If writing a compacted snapshot fails, the rotated journal stays on disk; the next flush
+ * folds the new records into it and compacts again.
+ */
+public class LogJournal {
+    private static final String SEQUENCE_HEADER = "# journal-sequence,";
+    private static final char CHECKSUM_MARK = '$';
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private final String snapshotFile;
+    private final Path journalPath;
+    private final Path compactingPath;
+    private final FileHandler fileHandler;
+    private final int compactionThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "log-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<String> pending = new ArrayList<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile boolean compactionFailed;
+    private long sequence;
+    private int recordsSinceCompaction;
+
+    /**
+     * Creates a journal for the given snapshot file with the default compaction threshold.
+     *
+     * @param snapshotFile the path to the log CSV snapshot
+     * @param fileHandler  the FileHandler used to read and format log lines
+     */
+    public LogJournal(String snapshotFile, FileHandler fileHandler) {
+        this(snapshotFile, fileHandler, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a journal for the given snapshot file.
+     *
+     * @param snapshotFile        the path to the log CSV snapshot
+     * @param fileHandler         the FileHandler used to read and format log lines
+     * @param compactionThreshold the number of journal records that triggers compaction
+     */
+    public LogJournal(String snapshotFile, FileHandler fileHandler, int compactionThreshold) {
+        this.snapshotFile = snapshotFile;
+        this.journalPath = Paths.get(snapshotFile + ".journal");
+        this.compactingPath = Paths.get(snapshotFile + ".journal.compacting");
+        this.fileHandler = fileHandler;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Replays the journal on top of logs already loaded from the snapshot.
+     * Records already contained in the snapshot are skipped.
+     *
+     * @param logs      the Logs object loaded from the snapshot
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param report    collects names that could not be resolved
+     */
+    public void recover(Logs logs, List<Food> foods, Exercises exercises, LogLoadReport report) {
+        sequence = readSnapshotSequence();
+        Map<String, Food> foodsByName = fileHandler.indexFoods(foods);
+        for (Path path : List.of(compactingPath, journalPath)) {
+            if (!Files.exists(path)) {
+                continue;
+            }
+            CsvTokenizer csv = new CsvTokenizer();
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String record = verify(line);
+                    if (record == null) {
+                        System.out.println("Skipping damaged log journal record in " + path + ": " + line);
+                        continue;
+                    }
+                    csv.reset(record);
+                    if (!csv.next()) {
+                        continue;
+                    }
+                    long recordSequence = csv.longValue();
+                    if (!csv.next()) {
+                        continue; // torn final line
+                    }
+                    boolean remove = csv.textEquals("-");
+                    // Skips records in the snapshot, and copies left in both files by an
+                    // interrupted merge after a failed compaction
+                    if (recordSequence > sequence) {
+                        try {
+                            fileHandler.applyLogLine(csv, remove, LogLineFilter.ALL, foodsByName, exercises, logs,
+                                    report);
+                        } catch (RuntimeException e) {
+                            report.malformedLine(record);
+                        }
+                        sequence = Math.max(sequence, recordSequence);
+                        recordsSinceCompaction++;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error replaying log journal: " + e.getMessage());
+            }
+            trimTornTail(path);
+        }
+        if (Files.exists(compactingPath)) {
+            // An earlier compaction did not finish; finish it now with the recovered state
+            writeSnapshot(snapshotLines(logs));
+        }
+    }
+
+    /**
+     * Records that a food log was added.
+     *
+     * @param log the added food log
+     */
+    public void foodAdded(Log log) {
+        record("+", fileHandler.formatFoodLog(log.getDate(), log));
+    }
+
+    /**
+     * Records that a food log was removed.
+     *
+     * @param log the removed food log
+     */
+    public void foodRemoved(Log log) {
+        record("-", fileHandler.formatFoodLog(log.getDate(), log));
+    }
+
+    /**
+     * Records that an exercise log was added.
+     *
+     * @param date  the date of the exercise
+     * @param entry the added exercise entry
+     */
+    public void exerciseAdded(LocalDate date, ExerciseEntry entry) {
+        record("+", fileHandler.formatExerciseLog(date, entry));
+    }
+
+    /**
+     * Records that an exercise log was removed.
+     *
+     * @param date  the date of the exercise
+     * @param entry the removed exercise entry
+     */
+    public void exerciseRemoved(LocalDate date, ExerciseEntry entry) {
+        record("-", fileHandler.formatExerciseLog(date, entry));
+    }
+
+    /**
+     * Records that the weight for a date was set.
+     *
+     * @param date   the date
+     * @param weight the weight
+     */
+    public void weightSet(LocalDate date, double weight) {
+        record("+", fileHandler.formatWeightLog(date, weight));
+    }
+
+    /**
+     * Records that the calorie goal for a date was set.
+     *
+     * @param date the date
+     * @param goal the calorie goal
+     */
+    public void calorieGoalSet(LocalDate date, double goal) {
+        record("+", fileHandler.formatCalorieGoalLog(date, goal));
+    }
+
+    private void record(String op, String logLine) {
+        String record = ++sequence + "," + op + "," + logLine;
+        pending.add(CHECKSUM_MARK + Long.toHexString(checksum(record)) + "," + record);
+    }
+
+    /**
+     * Checks a journal line against its checksum.
+     *
+     * @param line the line as read
+     * @return the record without its checksum, or null if the checksum does not match
+     */
+    private static String verify(String line) {
+        if (line.isEmpty() || line.charAt(0) != CHECKSUM_MARK) {
+            return line; // written before records had checksums
+        }
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            return null;
+        }
+        String record = line.substring(comma + 1);
+        try {
+            return Long.parseLong(line.substring(1, comma), 16) == checksum(record) ? record : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Appends the records made since the last flush to the journal file and starts a
+     * background compaction if the journal has grown past the threshold.
+     *
+     * @param logs the Logs object the records were made against, used for compaction
+     */
+    public void flush(Logs logs) {
+        prepareFlush(logs).run();
+    }
+
+    /**
+     * Takes the records made since the last flush, and a snapshot if compaction is due,
+     * without touching the disk. The returned task performs the file I/O and may run on
+     * another thread. Callers must hold the lock on {@code logs}.
+     *
+     * @param logs the Logs object the records were made against, used for compaction
+     * @return a task that appends the records and starts any due compaction
+     */
+    public Runnable prepareFlush(Logs logs) {
+        List<String> records = new ArrayList<>(pending);
+        pending.clear();
+        recordsSinceCompaction += records.size();
+        List<String> snapshot = null;
+        if (recordsSinceCompaction >= compactionThreshold || compactionFailed) {
+            snapshot = snapshotLines(logs);
+            recordsSinceCompaction = 0;
+        }
+        List<String> compactedSnapshot = snapshot;
+        return () -> {
+            if (!records.isEmpty()) {
+                try {
+                    AtomicFiles.append(journalPath, records, fileHandler.isDurableWrites());
+                } catch (IOException e) {
+                    System.out.println("Error appending to log journal: " + e.getMessage());
+                    return;
+                }
+            }
+            if (compactedSnapshot != null) {
+                compact(compactedSnapshot);
+            }
+        };
+    }
+
+    /**
+     * Folds the journal into a new snapshot. The journal is rotated on the calling thread,
+     * then the snapshot is written on a background thread.
+     * Does nothing if a previous compaction is still running. If a failed compaction left
+     * a rotated journal behind, the current journal is appended to it instead, so the
+     * rotated file still holds every record after the last snapshot, in order.
+     *
+     * @param lines the snapshot, covering every record in the journal
+     */
+    private void compact(List<String> lines) {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (Files.exists(compactingPath)) {
+                if (Files.exists(journalPath)) {
+                    AtomicFiles.append(compactingPath, Files.readAllLines(journalPath),
+                            fileHandler.isDurableWrites());
+                    Files.delete(journalPath);
+                }
+            } else if (Files.exists(journalPath)) {
+                Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            System.out.println("Error rotating log journal: " + e.getMessage());
+            compactionFailed = true;
+            compacting.set(false);
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                writeSnapshot(lines);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private List<String> snapshotLines(Logs logs) {
+        List<String> lines = new ArrayList<>();
+        lines.add(SEQUENCE_HEADER + sequence);
+        lines.addAll(fileHandler.formatLogs(logs));
+        return lines;
+    }
+
+    private void writeSnapshot(List<String> lines) {
+        try {
+            // The rotated journal may only go once the snapshot covering it is safely in place
+            AtomicFiles.write(Paths.get(snapshotFile), lines, fileHandler.isDurableWrites());
+            Files.deleteIfExists(compactingPath);
+            compactionFailed = false;
+        } catch (IOException e) {
+            // The rotated journal stays; the next flush merges into it and retries
+            System.out.println("Error compacting log journal: " + e.getMessage());
+            compactionFailed = true;
+        }
+    }
+
+    /**
+     * Cuts an unterminated final line left by a crash, so the next record appended starts
+     * on a line of its own.
+     *
+     * @param path the journal file
+     */
+    private static void trimTornTail(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer one = ByteBuffer.allocate(1);
+            long keep = end;
+            while (keep > 0) {
+                one.clear();
+                channel.read(one, keep - 1);
+                if (one.get(0) == '\n') {
+                    break;
+                }
+                keep--;
+            }
+            if (keep < end) {
+                channel.truncate(keep);
+            }
+        } catch (IOException e) {
+            System.out.println("Error trimming log journal: " + e.getMessage());
+        }
+    }
+
+    private long readSnapshotSequence() {
+        try (BufferedReader reader = new BufferedReader(new FileReader(snapshotFile))) {
+            String first = reader.readLine();
+            if (first != null && first.startsWith(SEQUENCE_HEADER)) {
+                return Long.parseLong(first.substring(SEQUENCE_HEADER.length()).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            // No snapshot or no header: every journal record is newer
+        }
+        return 0;
+    }
+}
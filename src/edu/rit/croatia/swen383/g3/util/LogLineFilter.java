@@ -0,0 +1,26 @@
+package edu.rit.croatia.swen383.g3.util;
+
+/**
+ * Selects which lines of a log CSV file are applied when reading it.
+ * The filter sees each line's date and type before the rest of the line is parsed,
+ * so rejected lines cost little more than finding their end.
+ */
+@FunctionalInterface
+public interface LogLineFilter {
+
+    /**
+     * Accepts every line.
+     */
+    LogLineFilter ALL = (year, month, type) -> true;
+
+    /**
+     * Decides whether a log line is applied. May be called from several threads at once
+     * when a file is loaded in parallel.
+     *
+     * @param year  the year of the line
+     * @param month the month of the line, 1 to 12
+     * @param type  the entry type: 'f', 'e', 'w' or 'c'
+     * @return true to apply the line
+     */
+    boolean accept(int year, int month, char type);
+}
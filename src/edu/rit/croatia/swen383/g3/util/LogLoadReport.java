@@ -0,0 +1,125 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes log entries that could not be loaded: entries naming a food or exercise
+ * that is not in the catalog, each unresolved name counted once per line, and lines that
+ * could not be parsed, with the first few kept as examples.
+ */
+public class LogLoadReport {
+    private static final int MALFORMED_EXAMPLES = 5;
+
+    private final Map<String, Integer> unresolvedFoods = new LinkedHashMap<>();
+    private final Map<String, Integer> unresolvedExercises = new LinkedHashMap<>();
+    private final List<String> malformedExamples = new ArrayList<>();
+    private int malformedLines;
+
+    /**
+     * Records a food log line whose food name could not be resolved.
+     *
+     * @param name the unresolved food name
+     */
+    public void unresolvedFood(String name) {
+        unresolvedFoods.merge(name, 1, Integer::sum);
+    }
+
+    /**
+     * Records an exercise log line whose exercise name could not be resolved.
+     *
+     * @param name the unresolved exercise name
+     */
+    public void unresolvedExercise(String name) {
+        unresolvedExercises.merge(name, 1, Integer::sum);
+    }
+
+    /**
+     * Records a line that was skipped because it could not be parsed.
+     *
+     * @param line the line as read
+     */
+    public void malformedLine(String line) {
+        malformedLines++;
+        if (malformedExamples.size() < MALFORMED_EXAMPLES) {
+            malformedExamples.add(line);
+        }
+    }
+
+    /**
+     * Returns the number of lines skipped because they could not be parsed.
+     *
+     * @return the number of malformed lines
+     */
+    public int getMalformedLines() {
+        return malformedLines;
+    }
+
+    /**
+     * Adds the counts of another report to this one.
+     *
+     * @param other the report to add
+     */
+    public void merge(LogLoadReport other) {
+        other.unresolvedFoods.forEach((name, count) -> unresolvedFoods.merge(name, count, Integer::sum));
+        other.unresolvedExercises.forEach((name, count) -> unresolvedExercises.merge(name, count, Integer::sum));
+        malformedLines += other.malformedLines;
+        for (String line : other.malformedExamples) {
+            if (malformedExamples.size() < MALFORMED_EXAMPLES) {
+                malformedExamples.add(line);
+            }
+        }
+    }
+
+    /**
+     * Returns the unresolved food names with the number of lines naming each.
+     *
+     * @return read-only map of food name to count
+     */
+    public Map<String, Integer> getUnresolvedFoods() {
+        return Collections.unmodifiableMap(unresolvedFoods);
+    }
+
+    /**
+     * Returns the unresolved exercise names with the number of lines naming each.
+     *
+     * @return read-only map of exercise name to count
+     */
+    public Map<String, Integer> getUnresolvedExercises() {
+        return Collections.unmodifiableMap(unresolvedExercises);
+    }
+
+    /**
+     * Checks whether every entry was parsed and resolved.
+     *
+     * @return true if no names were unresolved and no lines were malformed
+     */
+    public boolean isEmpty() {
+        return unresolvedFoods.isEmpty() && unresolvedExercises.isEmpty() && malformedLines == 0;
+    }
+
+    /**
+     * Returns a readable summary of the unresolved names and malformed lines.
+     *
+     * @return the summary, or a note that all entries were resolved
+     */
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "All log entries resolved.";
+        }
+        StringBuilder summary = new StringBuilder();
+        if (!unresolvedFoods.isEmpty() || !unresolvedExercises.isEmpty()) {
+            summary.append("Unresolved log entries - foods: ").append(unresolvedFoods)
+                    .append(", exercises: ").append(unresolvedExercises);
+        }
+        if (malformedLines > 0) {
+            summary.append(summary.length() > 0 ? "; skipped " : "Skipped ").append(malformedLines)
+                    .append(" malformed log lines, e.g. ").append(malformedExamples);
+        }
+        return summary.toString();
+    }
+}
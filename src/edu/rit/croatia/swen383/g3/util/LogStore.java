@@ -0,0 +1,107 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for {@link Logs}. Implementations decide the file layout; {@link Logs}
+ * reads whole months or everything through this interface and hands it the months changed
+ * since the last save.
+ * <p>
+ * Weight and calorie goal entries are always read in full, since values carry forward from
+ * earlier dates. Food and exercise entries can be read by month, and written or deleted one
+ * date at a time without a {@link Logs} object.
+ * <p>
+ * Every implementation must pass {@code LogStoreConformance} in the test sources.
+ *
+ * @see StorageConfig
+ */
+public interface LogStore {
+
+    /**
+     * Identifies where the store keeps its data, for messages and for coalescing saves.
+     *
+     * @return the path of the store's file or directory
+     */
+    String getLocation();
+
+    /**
+     * Reads every weight and calorie goal, and the food and exercise entries dated in or
+     * after the given month. Every month with food or exercise entries, earlier ones included,
+     * is passed to {@code monthsWithEntries}, possibly from several threads.
+     *
+     * @param first             the first month whose food and exercise entries are read
+     * @param foods             the available foods for resolving names
+     * @param exercises         the available exercises for resolving names
+     * @param logs              the Logs object to populate
+     * @param monthsWithEntries receives each month that has food or exercise entries
+     * @return a report of the names read that could not be resolved
+     */
+    LogLoadReport readFrom(YearMonth first, List<Food> foods, Exercises exercises, Logs logs,
+            Consumer<YearMonth> monthsWithEntries);
+
+    /**
+     * Reads the food and exercise entries of the given months.
+     *
+     * @param months    the months to read
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param logs      the Logs object to populate
+     * @return a report of the names read that could not be resolved
+     */
+    LogLoadReport readMonths(Set<YearMonth> months, List<Food> foods, Exercises exercises, Logs logs);
+
+    /**
+     * Reads everything in the store.
+     *
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param logs      the Logs object to populate
+     * @return a report of the names that could not be resolved
+     */
+    default LogLoadReport readAll(List<Food> foods, Exercises exercises, Logs logs) {
+        return readFrom(YearMonth.of(-999_999_999, 1), foods, exercises, logs, month -> { });
+    }
+
+    /**
+     * Captures the data to save while the caller holds the lock on {@code logs}. The returned
+     * task performs the I/O and may run on another thread; it holds the lock on the store
+     * while it writes, so it never interleaves with {@link #writeDay}.
+     *
+     * @param logs          the Logs object to save from
+     * @param changedMonths the months whose food or exercise entries were added or removed
+     * @param seriesChanged true if a weight or calorie goal was set
+     * @param loadedMonths  the months whose entries are in memory, or null if all are;
+     *                      entries of other months must be kept as stored
+     * @return a task that writes the changes
+     */
+    Runnable prepareWrite(Logs logs, Set<YearMonth> changedMonths, boolean seriesChanged, Set<YearMonth> loadedMonths);
+
+    /**
+     * Replaces the food and exercise entries stored for one date, leaving every other date
+     * and the weight and calorie goal series as stored. Writes on the calling thread, holding
+     * the lock on the store.
+     * <p>
+     * The write bypasses {@link Logs}, which saves through {@link #prepareWrite}: a later save
+     * covering the same month stores what the Logs object holds for it.
+     *
+     * @param date            the date to write
+     * @param foodLogs        the food entries of the date, in order
+     * @param exerciseEntries the exercise entries of the date, in order
+     */
+    void writeDay(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseEntries);
+
+    /**
+     * Removes the food and exercise entries stored for one date. Writes on the calling thread.
+     *
+     * @param date the date to clear
+     */
+    default void deleteDay(LocalDate date) {
+        writeDay(date, List.of(), List.of());
+    }
+}
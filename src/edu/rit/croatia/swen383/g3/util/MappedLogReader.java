@@ -0,0 +1,500 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads the log CSV file by memory-mapping it and parsing fields directly from the bytes.
+ * Unlike {@link FileHandler#readLogs}, no String or array is created per line: the bytes are
+ * tokenized in place by {@link CsvTokenizer} and food and exercise names are resolved through
+ * a hash of the byte slice.
+ * The date object is reused while consecutive lines share a date, so the only allocations
+ * per line are the log entries themselves.
+ * <p>
+ * With a parallelism above one, the file is split at line boundaries into chunks that are
+ * parsed in a {@link ForkJoinPool}. The parsed chunks are applied to {@link Logs} in file
+ * order, so each day's entries keep their order and later weight or goal lines still win.
+ * <p>
+ * Accepts the same formats as {@link FileHandler#readLogs} and handles bad lines the same
+ * way: blank lines and comments are skipped, and a line that cannot be parsed is skipped
+ * and counted in the report.
+ * <p>
+ * A mapping is only released when it is garbage collected. Windows refuses to replace a
+ * file that is mapped, which would make the next save of the log file fail, so there the
+ * file is read into a heap buffer instead of being mapped.
+ */
+public class MappedLogReader {
+    /**
+     * Chunks are not made smaller than this, so short files are parsed by one task.
+     */
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Number of chunks per worker, so a slow chunk does not leave the other workers idle.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Whether files may be mapped; false where a live mapping blocks replacing the file.
+     */
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").startsWith("Windows");
+
+    private final ByteNameTable<Food> foods = new ByteNameTable<>();
+    private final ByteNameTable<Exercise> exercises = new ByteNameTable<>();
+
+    /**
+     * Creates a reader that resolves names against the given catalogs.
+     *
+     * @param foods     the available foods
+     * @param exercises the available exercises
+     */
+    public MappedLogReader(List<Food> foods, Exercises exercises) {
+        for (Food food : foods) {
+            this.foods.putIfAbsent(food.getName(), food);
+        }
+        for (Exercise exercise : exercises.getAllExercises()) {
+            this.exercises.putIfAbsent(exercise.getName(), exercise);
+        }
+    }
+
+    /**
+     * Reads the log file into the Logs object on the calling thread.
+     *
+     * @param filename the path to the log CSV file
+     * @param logs     the Logs object to populate
+     * @return a report of the names that could not be resolved and the lines that could not be parsed
+     * @throws IOException if the file cannot be read
+     */
+    public LogLoadReport read(String filename, Logs logs) throws IOException {
+        return read(filename, logs, 1, LogLineFilter.ALL);
+    }
+
+    /**
+     * Reads the log file into the Logs object, parsing chunks of it on up to
+     * {@code parallelism} threads.
+     *
+     * @param filename    the path to the log CSV file
+     * @param logs        the Logs object to populate
+     * @param parallelism the number of parsing threads; 1 parses on the calling thread
+     * @param filter      selects the lines to apply
+     * @return a report of the names that could not be resolved and the lines that could not be parsed
+     * @throws IOException if the file cannot be read
+     */
+    public LogLoadReport read(String filename, Logs logs, int parallelism, LogLineFilter filter)
+            throws IOException {
+        ByteBuffer buffer;
+        Path path = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log file too large to map: " + channel.size() + " bytes");
+            }
+            buffer = MAP_FILES ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    : readFully(channel);
+        }
+
+        List<ParsedChunk> chunks = new ArrayList<>();
+        int[] bounds = splitAtLines(buffer, parallelism);
+        if (bounds.length == 2) {
+            chunks.add(parse(buffer, bounds[0], bounds[1], filter));
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<ParsedChunk>> tasks = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    int from = bounds[i];
+                    int to = bounds[i + 1];
+                    tasks.add(pool.submit(() -> parse(buffer, from, to, filter)));
+                }
+                for (ForkJoinTask<ParsedChunk> task : tasks) {
+                    chunks.add(task.join());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        LogLoadReport report = new LogLoadReport();
+        synchronized (logs) {
+            for (ParsedChunk chunk : chunks) {
+                chunk.applyTo(logs, report);
+            }
+        }
+        return report;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the buffer is full or the file ends
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Splits the buffer into chunks that each end just after a newline.
+     *
+     * @return the chunk boundaries; chunk i covers {@code [bounds[i], bounds[i + 1])}
+     */
+    private static int[] splitAtLines(ByteBuffer buffer, int parallelism) {
+        int limit = buffer.limit();
+        int chunkCount = parallelism <= 1 ? 1
+                : Math.max(1, Math.min(parallelism * CHUNKS_PER_WORKER, limit / MIN_CHUNK_SIZE));
+        int chunkSize = limit / chunkCount + 1;
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int start = 0;
+        while (start < limit) {
+            int end = Math.min(limit, start + chunkSize);
+            while (end < limit && buffer.get(end - 1) != '\n') {
+                end++;
+            }
+            bounds.add(end);
+            start = end;
+        }
+        if (bounds.size() == 1) {
+            bounds.add(0); // empty file
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Parses the lines in {@code [from, to)} without touching {@link Logs}, so chunks can be
+     * parsed concurrently.
+     */
+    private ParsedChunk parse(ByteBuffer buffer, int from, int to, LogLineFilter filter) {
+        ParsedChunk chunk = new ParsedChunk();
+        ByteBufferCharSequence chars = new ByteBufferCharSequence(buffer);
+        CsvTokenizer csv = new CsvTokenizer();
+        int lastYear = 0;
+        int lastMonth = 0;
+        int lastDay = 0;
+        LocalDate date = null;
+        int pos = from;
+        while (pos < to) {
+            int lineEnd = pos;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            // Drop the carriage return of a CRLF line, as BufferedReader.readLine does
+            int end = lineEnd > pos && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (isBlank(buffer, pos, end) || buffer.get(pos) == '#') {
+                pos = lineEnd + 1;
+                continue;
+            }
+            csv.reset(chars, pos, end);
+            try {
+                int year = nextInt(csv);
+                int month = nextInt(csv);
+                int day = nextInt(csv);
+                if (!csv.next()) {
+                    throw new NumberFormatException("missing field");
+                }
+                char type = csv.firstChar();
+                if (!csv.next()) {
+                    throw new NumberFormatException("missing field");
+                }
+                if (!filter.accept(year, month, type)) {
+                    pos = lineEnd + 1;
+                    continue;
+                }
+                if (date == null || year != lastYear || month != lastMonth || day != lastDay) {
+                    date = LocalDate.of(year, month, day);
+                    lastYear = year;
+                    lastMonth = month;
+                    lastDay = day;
+                }
+                switch (type) {
+                    case 'f': {
+                        Food food = resolve(foods, buffer, csv);
+                        String unresolved = food == null ? csv.text() : null;
+                        double servings = nextDouble(csv);
+                        if (food != null) {
+                            chunk.foodLogs.add(new Log(date, food, servings));
+                        } else {
+                            chunk.report.unresolvedFood(unresolved);
+                        }
+                        break;
+                    }
+                    case 'e': {
+                        Exercise exercise = resolve(exercises, buffer, csv);
+                        String unresolved = exercise == null ? csv.text() : null;
+                        double minutes = nextDouble(csv);
+                        if (exercise != null) {
+                            chunk.exerciseDates.add(date);
+                            chunk.exerciseEntries.add(new ExerciseEntry(exercise, minutes));
+                        } else {
+                            chunk.report.unresolvedExercise(unresolved);
+                        }
+                        break;
+                    }
+                    case 'w':
+                        chunk.weightDates.add(date);
+                        chunk.weights.add(csv.doubleValue());
+                        break;
+                    case 'c':
+                        chunk.goalDates.add(date);
+                        chunk.goals.add(csv.doubleValue());
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                chunk.report.malformedLine(chars.subSequence(pos, end).toString());
+            }
+            pos = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextInt(CsvTokenizer csv) {
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        return csv.intValue();
+    }
+
+    private static double nextDouble(CsvTokenizer csv) {
+        if (!csv.next()) {
+            throw new NumberFormatException("missing field");
+        }
+        return csv.doubleValue();
+    }
+
+    /**
+     * Resolves the name in the current field, looking up the raw bytes unless the field
+     * contains escaped quotes.
+     */
+    private static <T> T resolve(ByteNameTable<T> table, ByteBuffer buffer, CsvTokenizer csv) {
+        return csv.hasEscapes() ? table.get(csv.text()) : table.get(buffer, csv.start(), csv.end());
+    }
+
+    /**
+     * The entries parsed from one chunk of the file, in file order.
+     */
+    private static final class ParsedChunk {
+        final List<Log> foodLogs = new ArrayList<>();
+        final List<LocalDate> exerciseDates = new ArrayList<>();
+        final List<ExerciseEntry> exerciseEntries = new ArrayList<>();
+        final List<LocalDate> weightDates = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+        final List<LocalDate> goalDates = new ArrayList<>();
+        final List<Double> goals = new ArrayList<>();
+        final LogLoadReport report = new LogLoadReport();
+
+        void applyTo(Logs logs, LogLoadReport total) {
+            for (Log log : foodLogs) {
+                logs.addLog(log);
+            }
+            for (int i = 0; i < exerciseEntries.size(); i++) {
+                logs.addExerciseLog(exerciseDates.get(i), exerciseEntries.get(i));
+            }
+            for (int i = 0; i < weights.size(); i++) {
+                logs.setWeightForDate(weightDates.get(i), weights.get(i));
+            }
+            for (int i = 0; i < goals.size(); i++) {
+                logs.setCalorieGoalForDate(goalDates.get(i), goals.get(i));
+            }
+            total.merge(report);
+        }
+    }
+
+    /**
+     * Open-addressing hash table keyed by case-folded names, queried with byte slices.
+     * ASCII names are matched byte by byte with case folding; names containing other
+     * characters are decoded and looked up through a String map.
+     */
+    static final class ByteNameTable<T> {
+        private byte[][] keys = new byte[16][];
+        private Object[] values = new Object[16];
+        private int size;
+        private final Map<String, T> nonAscii = new HashMap<>();
+
+        /**
+         * Adds a name unless a name equal to it (case-insensitive) is already present.
+         */
+        void putIfAbsent(String name, T value) {
+            String folded = Names.fold(name);
+            byte[] key = folded.getBytes(StandardCharsets.UTF_8);
+            if (!isAscii(key)) {
+                nonAscii.putIfAbsent(folded, value);
+                return;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], key)) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        /**
+         * Looks up a name given as a String.
+         */
+        @SuppressWarnings("unchecked")
+        T get(String name) {
+            String folded = Names.fold(name);
+            byte[] key = folded.getBytes(StandardCharsets.UTF_8);
+            if (!isAscii(key)) {
+                return nonAscii.get(folded);
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], key)) {
+                    return (T) values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Looks up the name stored in {@code source[start, end)}.
+         */
+        @SuppressWarnings("unchecked")
+        T get(ByteBuffer source, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                byte b = source.get(i);
+                if (b < 0) {
+                    byte[] bytes = new byte[end - start];
+                    source.get(start, bytes);
+                    return nonAscii.get(Names.fold(new String(bytes, StandardCharsets.UTF_8)));
+                }
+                h = 31 * h + lower(b);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(h) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], source, start, end)) {
+                    return (T) values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private void resize() {
+            byte[][] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new Object[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer source, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != lower(source.get(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(byte[] key, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + key[i];
+            }
+            return mix(h);
+        }
+
+        private static int mix(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        private static byte lower(byte b) {
+            return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+        }
+
+        private static boolean isAscii(byte[] bytes) {
+            for (byte b : bytes) {
+                if (b < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Presents a byte buffer as characters for {@link CsvTokenizer}. Each byte becomes one
+     * char, which is enough to find the commas and quotes of a UTF-8 line; field text is
+     * decoded as UTF-8 when {@link #subSequence} is called.
+     */
+    static final class ByteBufferCharSequence implements CharSequence {
+        private final ByteBuffer bytes;
+
+        ByteBufferCharSequence(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] slice = new byte[end - start];
+            bytes.get(start, slice);
+            return new String(slice, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
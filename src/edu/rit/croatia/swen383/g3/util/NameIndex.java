@@ -0,0 +1,292 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * An inverted index over the names of catalog items for type-ahead search.
+ * <p>
+ * Names are split into lower-case letter and digit tokens. The index keeps the distinct
+ * tokens sorted, each with the positions of the items containing it, so the tokens starting
+ * with a typed prefix are one contiguous range found by binary search. A query matches the
+ * items that have, for every query token, some token starting with it. Matches are ranked:
+ * exact name, then names starting with the query, then names where every query token is a
+ * whole token, then the rest; ties go to the shorter name, then to catalog order.
+ * <p>
+ * The index is immutable once built and may be searched from several threads. Appending
+ * items to the catalog derives a new index that shares the postings of untouched tokens.
+ *
+ * @param <T> the catalog item type
+ */
+public class NameIndex<T> {
+    private static final long LENGTH_MASK = 0xFFFFFF;
+    private static final long ID_MASK = 0xFFFFFFFFL;
+
+    private final Function<T, String> name;
+    private final List<T> items;
+    private final String[] names;
+    private final String[] tokens;
+    private final int[][] postings;
+
+    /**
+     * Builds the index over a catalog.
+     *
+     * @param catalog the items, in catalog order
+     * @param name    returns the name of an item
+     */
+    public NameIndex(List<T> catalog, Function<T, String> name) {
+        this.name = name;
+        items = List.copyOf(catalog);
+        names = new String[items.size()];
+        Map<String, IntList> byToken = indexNames(items, 0);
+        tokens = byToken.keySet().toArray(new String[0]);
+        Arrays.sort(tokens);
+        postings = new int[tokens.length][];
+        for (int t = 0; t < tokens.length; t++) {
+            postings[t] = byToken.get(tokens[t]).toArray();
+        }
+    }
+
+    private NameIndex(NameIndex<T> base, List<T> added) {
+        name = base.name;
+        List<T> all = new ArrayList<>(base.items.size() + added.size());
+        all.addAll(base.items);
+        all.addAll(added);
+        items = List.copyOf(all);
+        names = Arrays.copyOf(base.names, items.size());
+        Map<String, IntList> byToken = indexNames(added, base.items.size());
+        String[] addedTokens = byToken.keySet().toArray(new String[0]);
+        Arrays.sort(addedTokens);
+
+        // Merge the two sorted token lists. Postings of tokens the new names lack are
+        // shared with the base index; the new ids are all higher, so they are appended.
+        String[] mergedTokens = new String[base.tokens.length + addedTokens.length];
+        int[][] mergedPostings = new int[mergedTokens.length][];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < base.tokens.length || j < addedTokens.length) {
+            int order = i == base.tokens.length ? 1
+                    : j == addedTokens.length ? -1 : base.tokens[i].compareTo(addedTokens[j]);
+            if (order < 0) {
+                mergedTokens[n] = base.tokens[i];
+                mergedPostings[n++] = base.postings[i++];
+            } else if (order > 0) {
+                mergedTokens[n] = addedTokens[j];
+                mergedPostings[n++] = byToken.get(addedTokens[j++]).toArray();
+            } else {
+                IntList ids = byToken.get(addedTokens[j++]);
+                int[] merged = Arrays.copyOf(base.postings[i], base.postings[i].length + ids.size);
+                System.arraycopy(ids.values, 0, merged, base.postings[i].length, ids.size);
+                mergedTokens[n] = base.tokens[i++];
+                mergedPostings[n++] = merged;
+            }
+        }
+        tokens = Arrays.copyOf(mergedTokens, n);
+        postings = Arrays.copyOf(mergedPostings, n);
+    }
+
+    /**
+     * Returns an index over this catalog with items appended. Only the new names are
+     * tokenized; this index is unchanged.
+     *
+     * @param added the items appended to the catalog, in catalog order
+     * @return the index over the longer catalog
+     */
+    public NameIndex<T> withAdded(List<T> added) {
+        return added.isEmpty() ? this : new NameIndex<>(this, added);
+    }
+
+    /**
+     * Stores the lower-case names of items numbered from the given id and collects the ids
+     * by token.
+     */
+    private Map<String, IntList> indexNames(List<T> batch, int firstId) {
+        Map<String, IntList> byToken = new HashMap<>();
+        for (int k = 0; k < batch.size(); k++) {
+            int id = firstId + k;
+            names[id] = name.apply(batch.get(k)).toLowerCase(Locale.ROOT);
+            for (String token : tokenize(names[id])) {
+                IntList ids = byToken.computeIfAbsent(token, t -> new IntList());
+                // A name repeating a token is listed once
+                if (ids.size == 0 || ids.values[ids.size - 1] != id) {
+                    ids.add(id);
+                }
+            }
+        }
+        return byToken;
+    }
+
+    /**
+     * Finds the best matches for a query.
+     *
+     * @param query the text typed; an empty query returns the first items in catalog order
+     * @param limit the maximum number of results
+     * @return the matching items, best first
+     */
+    public List<T> search(String query, int limit) {
+        String lower = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> queryTokens = tokenize(lower);
+        if (queryTokens.isEmpty()) {
+            return items.subList(0, Math.min(limit, items.size()));
+        }
+
+        // matched[i] counts the query tokens item i has matched so far, so each pass only
+        // advances items that matched every earlier token; whole[i] counts the tokens it
+        // matched exactly. An exact token sorts first among those sharing its prefix, so an
+        // item holding it is always advanced by it.
+        int[] matched = new int[items.size()];
+        int[] whole = new int[items.size()];
+        IntList candidates = new IntList();
+        for (int q = 0; q < queryTokens.size(); q++) {
+            String prefix = queryTokens.get(q);
+            boolean last = q == queryTokens.size() - 1;
+            for (int t = lowerBound(prefix); t < tokens.length && tokens[t].startsWith(prefix); t++) {
+                boolean exact = tokens[t].length() == prefix.length();
+                for (int id : postings[t]) {
+                    if (matched[id] == q) {
+                        matched[id] = q + 1;
+                        if (exact) {
+                            whole[id]++;
+                        }
+                        if (last) {
+                            candidates.add(id);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Keep the best keys in a heap whose head is the worst kept, so most candidates
+        // are rejected with one comparison
+        long[] heap = new long[Math.min(limit, candidates.size)];
+        int kept = 0;
+        for (int c = 0; c < candidates.size; c++) {
+            int id = candidates.values[c];
+            long key = sortKey(id, rank(id, lower, whole[id] == queryTokens.size()));
+            if (kept < heap.length) {
+                heap[kept] = key;
+                siftUp(heap, kept++);
+            } else if (kept > 0 && key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, kept);
+            }
+        }
+        long[] sorted = Arrays.copyOf(heap, kept);
+        Arrays.sort(sorted);
+        List<T> results = new ArrayList<>(kept);
+        for (long key : sorted) {
+            results.add(items.get((int) (key & ID_MASK)));
+        }
+        return results;
+    }
+
+    /**
+     * Restores the max-heap order after a key was placed at the given position.
+     */
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    /**
+     * Restores the max-heap order after the head of a heap of the given size was replaced.
+     */
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    private int rank(int id, String query, boolean wholeTokens) {
+        String name = names[id];
+        if (name.equals(query)) {
+            return 0;
+        }
+        if (name.startsWith(query)) {
+            return 1;
+        }
+        return wholeTokens ? 2 : 3;
+    }
+
+    /**
+     * Packs the rank, name length and catalog position into one key that orders results.
+     */
+    private long sortKey(int id, int rank) {
+        long length = Math.min(names[id].length(), LENGTH_MASK);
+        return ((long) rank << 56) | (length << 32) | id;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Splits lower-case text into its runs of letters and digits.
+     */
+    private static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                result.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A growable list of ints, to keep postings unboxed while building.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
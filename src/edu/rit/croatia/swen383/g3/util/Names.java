@@ -0,0 +1,24 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.util.Locale;
+
+/**
+ * Helpers for matching food and exercise names.
+ * Names are compared case-insensitively throughout the application, so
+ * lookup maps are keyed by the case-folded form returned by {@link #fold(String)}.
+ */
+public final class Names {
+
+    private Names() {
+    }
+
+    /**
+     * Returns the case-folded lookup key for a name.
+     *
+     * @param name the name to fold
+     * @return the lower-case form of the name
+     */
+    public static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,350 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Stores logs as one CSV file per month instead of a single file, so a save rewrites only
+ * the months that changed and reading a date opens only its month.
+ * <p>
+ * Layout of the store directory:
+ * <ul>
+ *   <li>{@code yyyy-MM.csv}: the food and exercise lines of one month</li>
+ *   <li>{@code series.csv}: all weight and calorie goal lines, which are small and are
+ *       needed in full to carry values forward</li>
+ *   <li>{@code manifest.csv}: a header followed by {@code yyyy-MM,file,entries} for each
+ *       month that has a partition</li>
+ * </ul>
+ * All files use the line format of {@link FileHandler#readLogs}. Files are replaced through a
+ * temporary file and an atomic move, and the manifest is written before new partitions and
+ * after removed ones, so it never omits a partition that exists.
+ */
+public class PartitionedLogStore implements LogStore {
+    private static final String MANIFEST_FILE = "manifest.csv";
+    private static final String SERIES_FILE = "series.csv";
+    private static final String MANIFEST_HEADER = "# dietmanager log partitions,1";
+
+    private final Path directory;
+    private final FileHandler fileHandler;
+    private final NavigableMap<YearMonth, Integer> manifest = new TreeMap<>();
+
+    /**
+     * Opens the store in the given directory, reading its manifest if it has one.
+     *
+     * @param directory   the directory holding the partitions
+     * @param fileHandler the FileHandler used to read and format log lines
+     */
+    public PartitionedLogStore(String directory, FileHandler fileHandler) {
+        this.directory = Paths.get(directory);
+        this.fileHandler = fileHandler;
+        readManifest();
+    }
+
+    @Override
+    public String getLocation() {
+        return directory.toString();
+    }
+
+    /**
+     * Checks whether the store has been created, either by a save or a migration.
+     *
+     * @return true if the manifest exists
+     */
+    public boolean exists() {
+        return Files.exists(directory.resolve(MANIFEST_FILE));
+    }
+
+    /**
+     * Returns the months that have a partition.
+     *
+     * @return the months, in ascending order
+     */
+    public synchronized NavigableSet<YearMonth> getMonths() {
+        return new TreeSet<>(manifest.keySet());
+    }
+
+    @Override
+    public LogLoadReport readFrom(YearMonth first, List<Food> foods, Exercises exercises, Logs logs,
+            Consumer<YearMonth> monthsWithEntries) {
+        LogLoadReport report = readSeries(foods, exercises, logs);
+        for (YearMonth month : getMonths()) {
+            monthsWithEntries.accept(month);
+            if (!month.isBefore(first)) {
+                report.merge(readMonth(month, foods, exercises, logs));
+            }
+        }
+        return report;
+    }
+
+    @Override
+    public LogLoadReport readMonths(Set<YearMonth> months, List<Food> foods, Exercises exercises, Logs logs) {
+        LogLoadReport report = new LogLoadReport();
+        for (YearMonth month : new TreeSet<>(months)) {
+            report.merge(readMonth(month, foods, exercises, logs));
+        }
+        return report;
+    }
+
+    /**
+     * Reads the weight and calorie goal series into the Logs object.
+     *
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param logs      the Logs object to populate
+     * @return a report of the names that could not be resolved
+     */
+    public LogLoadReport readSeries(List<Food> foods, Exercises exercises, Logs logs) {
+        return read(directory.resolve(SERIES_FILE), foods, exercises, logs);
+    }
+
+    /**
+     * Reads the food and exercise entries of one month into the Logs object.
+     *
+     * @param month     the month to read
+     * @param foods     the available foods for resolving names
+     * @param exercises the available exercises for resolving names
+     * @param logs      the Logs object to populate
+     * @return a report of the food and exercise names that could not be resolved
+     */
+    public LogLoadReport readMonth(YearMonth month, List<Food> foods, Exercises exercises, Logs logs) {
+        return read(partitionPath(month), foods, exercises, logs);
+    }
+
+    private LogLoadReport read(Path path, List<Food> foods, Exercises exercises, Logs logs) {
+        if (!Files.exists(path)) {
+            return new LogLoadReport();
+        }
+        return fileHandler.readLogs(path.toString(), foods, exercises, logs);
+    }
+
+    /**
+     * Formats the changed months, and the series if it changed. Other partitions are left as
+     * they are, so months that are not loaded need no special handling.
+     */
+    @Override
+    public synchronized Runnable prepareWrite(Logs logs, Set<YearMonth> months, boolean series,
+            Set<YearMonth> loadedMonths) {
+        Map<YearMonth, List<String>> partitions = new TreeMap<>();
+        for (YearMonth month : months) {
+            partitions.put(month, fileHandler.formatLogs(logs, month.atDay(1), month.atEndOfMonth()));
+        }
+        List<String> seriesLines = series ? fileHandler.formatSeries(logs) : null;
+
+        NavigableMap<YearMonth, Integer> before = new TreeMap<>(manifest);
+        partitions.forEach((month, lines) -> {
+            if (lines.isEmpty()) {
+                manifest.remove(month);
+            } else {
+                manifest.put(month, lines.size());
+            }
+        });
+        NavigableMap<YearMonth, Integer> after = new TreeMap<>(manifest);
+        NavigableMap<YearMonth, Integer> union = new TreeMap<>(before);
+        union.putAll(after);
+
+        return () -> {
+            synchronized (this) {
+                try {
+                    Files.createDirectories(directory);
+                    if (!union.keySet().equals(before.keySet())) {
+                        writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(union));
+                    }
+                    for (Map.Entry<YearMonth, List<String>> partition : partitions.entrySet()) {
+                        Path path = partitionPath(partition.getKey());
+                        if (partition.getValue().isEmpty()) {
+                            Files.deleteIfExists(path);
+                        } else {
+                            writeAtomically(path, partition.getValue());
+                        }
+                    }
+                    if (seriesLines != null) {
+                        writeAtomically(directory.resolve(SERIES_FILE), seriesLines);
+                    }
+                    if (!after.equals(before) || !exists()) {
+                        writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(after));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Error writing log partitions: " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Rewrites the partition of the date's month alone, replacing the lines of the date.
+     */
+    @Override
+    public synchronized void writeDay(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseEntries) {
+        YearMonth month = YearMonth.from(date);
+        Path path = partitionPath(month);
+        List<String> dayLines = fileHandler.formatEntries(date, foodLogs, exerciseEntries);
+        int key = LogIndex.dateKey(date);
+        CsvTokenizer csv = new CsvTokenizer();
+        try {
+            List<String> lines = new ArrayList<>();
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path)) {
+                    int lineKey = LogIndex.dateKey(csv.reset(line));
+                    if (lineKey > key && !dayLines.isEmpty()) {
+                        lines.addAll(dayLines);
+                        dayLines = List.of();
+                    }
+                    if (lineKey != key) {
+                        lines.add(line);
+                    }
+                }
+            }
+            lines.addAll(dayLines);
+
+            // As in a save, the manifest is written before a new partition and after a removed one
+            Files.createDirectories(directory);
+            if (lines.isEmpty()) {
+                Files.deleteIfExists(path);
+                if (manifest.remove(month) != null) {
+                    writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(manifest));
+                }
+            } else {
+                Integer before = manifest.put(month, lines.size());
+                if (before == null) {
+                    writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(manifest));
+                }
+                writeAtomically(path, lines);
+                if (before != null && before != lines.size()) {
+                    writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(manifest));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing log partition " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Splits a single log CSV file into this store, replacing any partitions it has.
+     * Lines are copied unchanged, so entries naming foods or exercises that are not in the
+     * catalog are kept. Comments and lines without a valid date are dropped.
+     *
+     * @param logFile the path to the log CSV file
+     * @throws IOException if the file cannot be read or the partitions cannot be written
+     */
+    public synchronized void migrate(String logFile) throws IOException {
+        Map<YearMonth, List<String>> months = new TreeMap<>();
+        List<String> series = new ArrayList<>();
+        CsvTokenizer csv = new CsvTokenizer();
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                YearMonth month = monthOf(csv.reset(line));
+                if (month == null) {
+                    continue;
+                }
+                char type = csv.firstChar();
+                if (type == 'f' || type == 'e') {
+                    months.computeIfAbsent(month, m -> new ArrayList<>()).add(line);
+                } else if (type == 'w' || type == 'c') {
+                    series.add(line);
+                }
+            }
+        }
+
+        Files.createDirectories(directory);
+        for (YearMonth month : manifest.keySet()) {
+            if (!months.containsKey(month)) {
+                Files.deleteIfExists(partitionPath(month));
+            }
+        }
+        manifest.clear();
+        for (Map.Entry<YearMonth, List<String>> month : months.entrySet()) {
+            writeAtomically(partitionPath(month.getKey()), month.getValue());
+            manifest.put(month.getKey(), month.getValue().size());
+        }
+        writeAtomically(directory.resolve(SERIES_FILE), series);
+        writeAtomically(directory.resolve(MANIFEST_FILE), manifestLines(manifest));
+    }
+
+    /**
+     * Reads the year, month, day and type fields, leaving the tokenizer on the type.
+     *
+     * @return the month of the line, or null if the line has no valid date
+     */
+    private static YearMonth monthOf(CsvTokenizer csv) {
+        try {
+            if (!csv.next()) {
+                return null;
+            }
+            int year = csv.intValue();
+            if (!csv.next()) {
+                return null;
+            }
+            int month = csv.intValue();
+            if (!csv.next() || !csv.next()) {
+                return null;
+            }
+            return YearMonth.of(year, month);
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    private Path partitionPath(YearMonth month) {
+        return directory.resolve(month + ".csv");
+    }
+
+    private void readManifest() {
+        Path path = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        CsvTokenizer csv = new CsvTokenizer();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || !csv.reset(line).next()) {
+                    continue;
+                }
+                YearMonth month = YearMonth.parse(csv.text());
+                int entries = csv.next() && csv.next() ? csv.intValue() : 0;
+                manifest.put(month, entries);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading log partition manifest: " + e.getMessage());
+        }
+    }
+
+    private static List<String> manifestLines(NavigableMap<YearMonth, Integer> months) {
+        List<String> lines = new ArrayList<>();
+        lines.add(MANIFEST_HEADER);
+        months.forEach((month, entries) -> lines.add(month + "," + month + ".csv," + entries));
+        return lines;
+    }
+
+    private void writeAtomically(Path path, List<String> lines) throws IOException {
+        AtomicFiles.write(path, lines, fileHandler.isDurableWrites());
+    }
+
+    /**
+     * Splits a log CSV file into a partitioned store.
+     * Usage: {@code PartitionedLogStore <log.csv> <directory>}
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: PartitionedLogStore <log.csv> <directory>");
+            return;
+        }
+        PartitionedLogStore store = new PartitionedLogStore(args[1], new FileHandler());
+        try {
+            store.migrate(args[0]);
+            System.out.println("Split " + args[0] + " into " + store.getMonths().size() + " monthly partitions");
+        } catch (IOException e) {
+            System.out.println("Error migrating logs: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Writes model data to disk on a dedicated background thread so the Swing
+ * event dispatch thread never waits for file I/O.
+ * <p>
+ * Models mark a file dirty with a snapshot function. Marks that arrive within a short
+ * window are coalesced, so a burst of changes to the same file results in one write.
+ * The snapshot function runs on the writer thread; it should copy what it needs while
+ * holding the model's lock and return the task that performs the actual write.
+ * <p>
+ * With durable writes on, this is where saves share disk syncs: every save of a file that
+ * arrives within the window becomes one write of it, forced once, instead of one forced
+ * write per click. Each batch is also an {@link AtomicFiles} group, so the files it replaces
+ * share one sync per directory. {@code SaveBenchmark} in the test sources measures the
+ * difference.
+ */
+public class PersistenceService {
+    private static final long DEFAULT_COALESCE_MILLIS = 200;
+
+    private final Map<String, Supplier<Runnable>> dirty = new LinkedHashMap<>();
+    private final long coalesceMillis;
+    private final Thread writer;
+    private boolean writing;
+    private boolean flushRequested;
+    private boolean running = true;
+
+    /**
+     * Creates and starts a persistence service with the default coalescing window.
+     */
+    public PersistenceService() {
+        this(DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * Creates and starts a persistence service.
+     *
+     * @param coalesceMillis how long to wait for further changes before writing
+     */
+    public PersistenceService(long coalesceMillis) {
+        this.coalesceMillis = coalesceMillis;
+        this.writer = new Thread(this::runWriter, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Marks a file as needing to be written. If the file is already pending, the new
+     * snapshot function replaces the old one.
+     *
+     * @param file     the file to write, used as the coalescing key
+     * @param snapshot captures the data to write and returns the task that writes it
+     */
+    public synchronized void markDirty(String file, Supplier<Runnable> snapshot) {
+        if (!running) {
+            snapshot.get().run(); // Already shut down: write synchronously
+            return;
+        }
+        dirty.put(file, snapshot);
+        notifyAll();
+    }
+
+    /**
+     * Writes all pending changes immediately and waits until they are on disk.
+     */
+    public synchronized void flush() {
+        flushRequested = true;
+        notifyAll();
+        try {
+            while (!dirty.isEmpty() || writing) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushRequested = false;
+        }
+    }
+
+    /**
+     * Flushes pending changes and stops the writer thread.
+     * Later changes are written synchronously by the caller.
+     */
+    public void shutdown() {
+        flush();
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            Map<String, Supplier<Runnable>> batch;
+            synchronized (this) {
+                try {
+                    while (dirty.isEmpty() && running) {
+                        wait();
+                    }
+                    if (dirty.isEmpty()) {
+                        return;
+                    }
+                    // Give a burst of changes time to arrive before writing
+                    long deadline = System.currentTimeMillis() + coalesceMillis;
+                    long remaining = coalesceMillis;
+                    while (remaining > 0 && running && !flushRequested) {
+                        wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(dirty);
+                dirty.clear();
+                writing = true;
+            }
+            AtomicFiles.beginGroup();
+            try {
+                for (Map.Entry<String, Supplier<Runnable>> entry : batch.entrySet()) {
+                    try {
+                        entry.getValue().get().run();
+                    } catch (RuntimeException e) {
+                        System.out.println("Error saving " + entry.getKey() + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                AtomicFiles.endGroup();
+            }
+            synchronized (this) {
+                writing = false;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records how long the application takes to start: from the launch of the JVM to the first
+ * paint of the window, and to the point where the data is loaded and editing is enabled.
+ * <p>
+ * With the {@code dietmanager.startupTiming} system property set to {@code true}, the times
+ * are printed as one line once the application is interactive:
+ * <pre>startup jvmMillis=&lt;n&gt; firstPaintMillis=&lt;n&gt; interactiveMillis=&lt;n&gt;</pre>
+ * where {@code jvmMillis} is the part spent before {@code main} ran. The startup benchmark,
+ * {@code StartupBenchmark} in the test sources, reads this line and then stops the application.
+ */
+public final class StartupTimer {
+    private static final boolean ENABLED = Boolean.getBoolean("dietmanager.startupTiming");
+
+    private static long mainMillis = -1;
+    private static long firstPaintMillis = -1;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that {@code main} started. Call first thing in {@code main}.
+     */
+    public static synchronized void start() {
+        mainMillis = uptime();
+    }
+
+    /**
+     * Records the first paint of the window. Later calls are ignored.
+     */
+    public static synchronized void firstPaint() {
+        if (firstPaintMillis < 0) {
+            firstPaintMillis = uptime();
+        }
+    }
+
+    /**
+     * Records that the data is loaded and editing is enabled, and prints the startup times
+     * if timing is on.
+     */
+    public static synchronized void interactive() {
+        if (!ENABLED) {
+            return;
+        }
+        System.out.println("startup jvmMillis=" + mainMillis + " firstPaintMillis=" + firstPaintMillis
+                + " interactiveMillis=" + uptime());
+    }
+
+    /**
+     * Milliseconds since the JVM was launched.
+     */
+    private static long uptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,141 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Chooses where and in which format the application keeps its data.
+ * <p>
+ * Read from system properties by {@link #fromSystemProperties}:
+ * <ul>
+ *   <li>{@code dietmanager.dataDir}: the data directory, {@code assets/data} by default</li>
+ *   <li>{@code dietmanager.storage}: the log backend, one of {@code csv} (the single
+ *       {@code log.csv} file, the default), {@code partitioned} (one CSV file per month in
+ *       {@code logs/}) or {@code binary} (the date-sorted columns of {@code log.bin})</li>
+ * </ul>
+ * The catalogs are always kept in {@code foods.csv} and {@code exercise.csv}. When a
+ * partitioned or binary store does not exist yet, it is created from {@code log.csv}.
+ */
+public class StorageConfig {
+    /**
+     * The single-file CSV log backend.
+     */
+    public static final String CSV = "csv";
+
+    /**
+     * The month-partitioned CSV log backend.
+     */
+    public static final String PARTITIONED = "partitioned";
+
+    /**
+     * The binary log backend, whose date-sorted rows are binary-searched to read months.
+     */
+    public static final String BINARY = "binary";
+
+    private final String dataDir;
+    private final String backend;
+    private final FileHandler fileHandler;
+
+    /**
+     * Creates a configuration.
+     *
+     * @param dataDir     the directory holding the data files
+     * @param backend     the log backend: {@link #CSV}, {@link #PARTITIONED} or {@link #BINARY}
+     * @param fileHandler the FileHandler used by the stores
+     * @throws IllegalArgumentException if the backend is not known
+     */
+    public StorageConfig(String dataDir, String backend, FileHandler fileHandler) {
+        if (!CSV.equals(backend) && !PARTITIONED.equals(backend) && !BINARY.equals(backend)) {
+            throw new IllegalArgumentException("Unknown log storage backend: " + backend);
+        }
+        this.dataDir = dataDir;
+        this.backend = backend;
+        this.fileHandler = fileHandler;
+    }
+
+    /**
+     * Creates the configuration given by the system properties. The older
+     * {@code dietmanager.partitionedLogs} flag selects the partitioned backend when
+     * {@code dietmanager.storage} is not set.
+     *
+     * @param fileHandler the FileHandler used by the stores
+     * @return the configuration
+     * @throws IllegalArgumentException if the backend is not known
+     */
+    public static StorageConfig fromSystemProperties(FileHandler fileHandler) {
+        String fallback = Boolean.getBoolean("dietmanager.partitionedLogs") ? PARTITIONED : CSV;
+        return new StorageConfig(System.getProperty("dietmanager.dataDir", "assets/data"),
+                System.getProperty("dietmanager.storage", fallback), fileHandler);
+    }
+
+    /**
+     * Returns the log backend.
+     *
+     * @return {@link #CSV}, {@link #PARTITIONED} or {@link #BINARY}
+     */
+    public String getBackend() {
+        return backend;
+    }
+
+    /**
+     * Returns the path of the CSV log file, which the CSV backend uses and the other
+     * backends are created from.
+     *
+     * @return the path of {@code log.csv}
+     */
+    public String getLogFile() {
+        return path("log.csv");
+    }
+
+    /**
+     * Creates the store for the food and exercise catalogs.
+     *
+     * @return the catalog store
+     */
+    public CatalogStore createCatalogStore() {
+        return new CsvCatalogStore(path("foods.csv"), path("exercise.csv"), fileHandler);
+    }
+
+    /**
+     * Creates the store for the logs, first creating it from {@code log.csv} if the chosen
+     * backend keeps logs elsewhere and has no data yet.
+     *
+     * @return the log store
+     * @throws UncheckedIOException if the store cannot be created from {@code log.csv}; the
+     *                              store would otherwise open empty and hide that history
+     */
+    public LogStore createLogStore() {
+        switch (backend) {
+            case PARTITIONED: {
+                PartitionedLogStore store = new PartitionedLogStore(path("logs"), fileHandler);
+                if (!store.exists() && new File(getLogFile()).exists()) {
+                    try {
+                        store.migrate(getLogFile());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Error migrating logs to monthly partitions: " + e.getMessage(), e);
+                    }
+                }
+                return store;
+            }
+            case BINARY: {
+                BinaryLogStore store = new BinaryLogStore(path("log.bin"), fileHandler);
+                if (!store.exists() && new File(getLogFile()).exists()) {
+                    try {
+                        store.migrate(getLogFile());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Error migrating logs to the binary store: " + e.getMessage(), e);
+                    }
+                }
+                return store;
+            }
+            default:
+                return new CsvLogStore(getLogFile(), fileHandler);
+        }
+    }
+
+    private String path(String name) {
+        return Paths.get(dataDir, name).toString();
+    }
+}
@@ -0,0 +1,158 @@
+package edu.rit.croatia.swen383.g3.view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * A list model over a food or exercise catalog that keeps the items themselves and
+ * formats a row only when it is painted, so large catalogs cost one array of references
+ * instead of one string per item.
+ * <p>
+ * The model can be narrowed to the items whose name contains a filter text. Filtering
+ * keeps an array of matching positions rather than copying items, and fires one event per
+ * change so the list lays itself out once.
+ *
+ * @param <T> the catalog item type
+ */
+public class CatalogListModel<T> extends AbstractListModel<T> {
+    private final Function<T, String> name;
+    private final Function<T, String> format;
+    private Object[] items = new Object[0];
+    private String[] lowerNames = new String[0];
+    private int[] visible;
+    private String filter = "";
+
+    /**
+     * Creates an empty model.
+     *
+     * @param name   returns the name filters are matched against
+     * @param format returns the text displayed for an item
+     */
+    public CatalogListModel(Function<T, String> name, Function<T, String> format) {
+        this.name = name;
+        this.format = format;
+    }
+
+    /**
+     * Replaces the items, keeping the current filter.
+     *
+     * @param catalog the items to show, in display order
+     */
+    public void setItems(List<T> catalog) {
+        int oldSize = getSize();
+        items = catalog.toArray();
+        lowerNames = new String[items.length];
+        visible = filter.isEmpty() ? null : matching(filter);
+        fireSizeChanged(oldSize);
+    }
+
+    /**
+     * Shows only the items whose name contains the given text, ignoring case.
+     * An empty text shows every item.
+     *
+     * @param text the text to match
+     */
+    public void setFilter(String text) {
+        String lower = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (lower.equals(filter)) {
+            return;
+        }
+        int oldSize = getSize();
+        visible = lower.isEmpty() ? null : matching(lower);
+        filter = lower;
+        fireSizeChanged(oldSize);
+    }
+
+    @Override
+    public int getSize() {
+        return visible == null ? items.length : visible.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T getElementAt(int index) {
+        return (T) items[visible == null ? index : visible[index]];
+    }
+
+    /**
+     * Returns the text displayed for an item.
+     *
+     * @param item the item
+     * @return the formatted row
+     */
+    public String format(T item) {
+        return format.apply(item);
+    }
+
+    /**
+     * Creates a renderer that formats each row of this model as it is painted.
+     *
+     * @return the cell renderer
+     */
+    public ListCellRenderer<Object> renderer() {
+        return new DefaultListCellRenderer() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                Object text = value instanceof String ? value : format((T) value);
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        };
+    }
+
+    /**
+     * Sets a list to a fixed cell size measured from a sample row, so Swing lays out the
+     * list without measuring every item.
+     *
+     * @param list   the list showing this model
+     * @param sample a row at least as wide as typical rows
+     */
+    public static void useFixedCellSize(JList<?> list, String sample) {
+        Dimension size = new DefaultListCellRenderer()
+                .getListCellRendererComponent(list, sample, 0, false, false).getPreferredSize();
+        list.setFixedCellHeight(size.height);
+        list.setFixedCellWidth(size.width);
+    }
+
+    private int[] matching(String lower) {
+        int[] matches = new int[items.length];
+        int count = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (lowerName(i).contains(lower)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Lower-cases names on first use, so the cost is paid only by catalogs that are filtered.
+     */
+    @SuppressWarnings("unchecked")
+    private String lowerName(int index) {
+        String lower = lowerNames[index];
+        if (lower == null) {
+            lower = name.apply((T) items[index]).toLowerCase(Locale.ROOT);
+            lowerNames[index] = lower;
+        }
+        return lower;
+    }
+
+    private void fireSizeChanged(int oldSize) {
+        int newSize = getSize();
+        if (newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        int common = Math.min(oldSize, newSize);
+        if (common > 0) {
+            fireContentsChanged(this, 0, common - 1);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package edu.rit.croatia.swen383.g3.view;
+
+import edu.rit.croatia.swen383.g3.util.NameIndex;
+
+import javax.swing.*;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * A search field over a food or exercise catalog with a list of the best matches, for
+ * picking one item in a dialog.
+ * <p>
+ * Typing is debounced; once it pauses, the query runs against a {@link NameIndex} on a
+ * background thread and the ranked results replace the list on the event thread. Results of
+ * a query that was overtaken by later typing are dropped. The Up and Down keys move the
+ * selection while the field has focus. The dialog's confirm button, if given, is disabled
+ * while the listed matches are not yet those of the text typed, so a choice is never read
+ * from stale matches and the event thread never waits for the index or a search.
+ *
+ * @param <T> the catalog item type
+ */
+public class CatalogSearchPanel<T> extends JPanel {
+    /**
+     * Pause in typing, in milliseconds, before a search runs.
+     */
+    private static final int DEBOUNCE_MS = 120;
+
+    /**
+     * Number of matches listed.
+     */
+    private static final int MAX_RESULTS = 50;
+
+    /**
+     * Builds indexes and runs searches, one at a time, off the event thread.
+     */
+    private static final ExecutorService SEARCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CompletableFuture<NameIndex<T>> index;
+    private final JTextField searchField = new JTextField();
+    private final DefaultListModel<T> resultModel = new DefaultListModel<>();
+    private final JList<T> resultList = new JList<>(resultModel);
+    private final Timer debounce;
+    private JButton confirmButton;
+    private int generation;
+    /** The query whose results are listed. */
+    private String shownQuery = "";
+
+    /**
+     * Creates the panel.
+     *
+     * @param cache   the index cache for the catalog's item type
+     * @param catalog the items to choose from
+     * @param format  returns the text displayed for an item
+     * @param label   the label shown above the search field
+     */
+    public CatalogSearchPanel(IndexCache<T> cache, List<T> catalog, Function<T, String> format, String label) {
+        super(new BorderLayout(0, 4));
+        index = cache.get(catalog);
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(8);
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, format.apply((T) value), index, isSelected,
+                        cellHasFocus);
+            }
+        });
+
+        JPanel top = new JPanel(new BorderLayout(0, 2));
+        top.add(new JLabel(label), BorderLayout.NORTH);
+        top.add(searchField, BorderLayout.CENTER);
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(resultList), BorderLayout.CENTER);
+
+        // Until the first search, list the start of the catalog
+        showResults("", catalog.subList(0, Math.min(MAX_RESULTS, catalog.size())));
+
+        debounce = new Timer(DEBOUNCE_MS, e -> search());
+        debounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                textChanged();
+            }
+        });
+        bindSelectionKey("UP", "selectPrevious", -1);
+        bindSelectionKey("DOWN", "selectNext", 1);
+
+        // Dialogs focus their buttons; move the focus to the search field once shown
+        searchField.addAncestorListener(new AncestorListener() {
+            @Override
+            public void ancestorAdded(AncestorEvent e) {
+                searchField.requestFocusInWindow();
+            }
+
+            @Override
+            public void ancestorRemoved(AncestorEvent e) {
+                debounce.stop();
+            }
+
+            @Override
+            public void ancestorMoved(AncestorEvent e) {
+            }
+        });
+    }
+
+    /**
+     * Sets the button that confirms the dialog holding this panel. The button is enabled
+     * only while the listed matches are those of the text typed.
+     *
+     * @param button the confirm button
+     */
+    public void setConfirmButton(JButton button) {
+        confirmButton = button;
+        updateConfirmButton();
+    }
+
+    /**
+     * Returns the chosen item from the listed matches: the selected match, or the best match
+     * if none is selected.
+     *
+     * @return the chosen item, or null if nothing is listed
+     */
+    public T getSelected() {
+        T selected = resultList.getSelectedValue();
+        if (selected == null && !resultModel.isEmpty()) {
+            selected = resultModel.get(0);
+        }
+        return selected;
+    }
+
+    private void textChanged() {
+        debounce.restart();
+        updateConfirmButton();
+    }
+
+    private void search() {
+        String query = searchField.getText();
+        int current = ++generation;
+        index.thenApplyAsync(built -> built.search(query, MAX_RESULTS), SEARCHER)
+                .whenComplete((results, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        System.out.println("Error searching catalog: " + error.getMessage());
+                    } else if (current == generation) {
+                        showResults(query, results);
+                    }
+                }));
+    }
+
+    private void showResults(String query, List<T> results) {
+        shownQuery = query;
+        resultModel.clear();
+        resultModel.addAll(results);
+        if (!results.isEmpty()) {
+            resultList.setSelectedIndex(0);
+        }
+        updateConfirmButton();
+    }
+
+    private void updateConfirmButton() {
+        if (confirmButton != null) {
+            confirmButton.setEnabled(!debounce.isRunning() && searchField.getText().equals(shownQuery));
+        }
+    }
+
+    private void bindSelectionKey(String key, String name, int step) {
+        searchField.getInputMap().put(KeyStroke.getKeyStroke(key), name);
+        searchField.getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int next = resultList.getSelectedIndex() + step;
+                if (next >= 0 && next < resultModel.size()) {
+                    resultList.setSelectedIndex(next);
+                    resultList.ensureIndexIsVisible(next);
+                }
+            }
+        });
+    }
+
+    /**
+     * Keeps the index of the last catalog searched, so it is built once per catalog change
+     * rather than once per dialog. Building runs in the background. Items appended to the
+     * catalog are added to the existing index rather than rebuilding it.
+     *
+     * @param <T> the catalog item type
+     */
+    public static class IndexCache<T> {
+        private final Function<T, String> name;
+        private List<T> source;
+        private CompletableFuture<NameIndex<T>> index;
+
+        /**
+         * Creates an empty cache.
+         *
+         * @param name returns the name of an item
+         */
+        public IndexCache(Function<T, String> name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the index over a catalog. The index is reused if the catalog holds the same
+         * item objects as the last one, extended if it holds them followed by more, and
+         * otherwise built anew.
+         *
+         * @param catalog the items
+         * @return the index, possibly still being built
+         */
+        public synchronized CompletableFuture<NameIndex<T>> get(List<T> catalog) {
+            if (index == null || !startsWithSource(catalog)) {
+                List<T> snapshot = List.copyOf(catalog);
+                source = snapshot;
+                index = CompletableFuture.supplyAsync(() -> new NameIndex<>(snapshot, name), SEARCHER);
+            } else if (catalog.size() > source.size()) {
+                List<T> added = List.copyOf(catalog.subList(source.size(), catalog.size()));
+                source = List.copyOf(catalog);
+                index = index.thenApplyAsync(built -> built.withAdded(added), SEARCHER);
+            }
+            return index;
+        }
+
+        private boolean startsWithSource(List<T> catalog) {
+            if (catalog.size() < source.size()) {
+                return false;
+            }
+            Iterator<T> items = catalog.iterator();
+            for (T item : source) {
+                if (items.next() != item) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
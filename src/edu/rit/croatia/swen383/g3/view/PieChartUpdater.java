@@ -0,0 +1,78 @@
+package edu.rit.croatia.swen383.g3.view;
+
+import org.jfree.data.general.DefaultPieDataset;
+
+import javax.swing.Timer;
+import java.util.Arrays;
+
+/**
+ * Batches changes to the values of a pie chart so the chart redraws at most once per frame.
+ * <p>
+ * Values set through {@link #setValues} are only recorded. A frame later, the latest values
+ * are written to the dataset with its notifications suspended, so the chart receives a single
+ * change event for all sections. Values equal to those already shown cause no event, so the
+ * chart panel keeps painting from its buffered image. Must be used on the event thread.
+ */
+public class PieChartUpdater {
+    /**
+     * Shortest interval between chart redraws, in milliseconds, about one display frame.
+     */
+    private static final int FRAME_MS = 16;
+
+    private final DefaultPieDataset dataset;
+    private final String[] keys;
+    private final double[] shown;
+    private final double[] pending;
+    private final Timer frame;
+
+    /**
+     * Creates the updater and sets every section to zero.
+     *
+     * @param dataset the dataset shown by the chart
+     * @param keys    the section keys, in the order their values are given
+     */
+    public PieChartUpdater(DefaultPieDataset dataset, String... keys) {
+        this.dataset = dataset;
+        this.keys = keys.clone();
+        this.shown = new double[keys.length];
+        this.pending = new double[keys.length];
+        for (String key : keys) {
+            dataset.setValue(key, 0);
+        }
+        frame = new Timer(FRAME_MS, e -> flush());
+        frame.setRepeats(false);
+    }
+
+    /**
+     * Records new section values, to be drawn on the next frame. Values recorded again
+     * before then replace these.
+     *
+     * @param values the value of each section, in key order
+     */
+    public void setValues(double... values) {
+        System.arraycopy(values, 0, pending, 0, keys.length);
+        if (!frame.isRunning()) {
+            frame.start();
+        }
+    }
+
+    /**
+     * Writes the recorded values to the dataset now, as one change.
+     */
+    public void flush() {
+        frame.stop();
+        if (Arrays.equals(pending, shown)) {
+            return;
+        }
+        dataset.setNotify(false);
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                dataset.setValue(keys[i], pending[i]);
+            }
+        } finally {
+            // Re-enabling notifications sends the one change event
+            dataset.setNotify(true);
+        }
+        System.arraycopy(pending, 0, shown, 0, keys.length);
+    }
+}
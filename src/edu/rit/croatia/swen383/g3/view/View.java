@@ -8,6 +8,8 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.data.general.DefaultPieDataset;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
@@ -29,8 +31,8 @@ public class View extends JFrame {
     private JLabel weightLabel;
     private JButton changeDateButton;
 
-    private DefaultListModel<String> foodListModel;
-    private JList<String> foodList;
+    private CatalogListModel<Food> foodListModel;
+    private JList<Food> foodList;
     // private JTextArea logDisplayArea;
 
     private JButton addLogButton;
@@ -39,18 +41,26 @@ public class View extends JFrame {
 
     private ChartPanel pieChartPanel;
     private DefaultPieDataset pieDataset;
+    private PieChartUpdater pieUpdater;
 
-    private DefaultListModel<String> exerciseListModel;
-    private JList<String> exerciseList;
+    private CatalogListModel<Exercise> exerciseListModel;
+    private JList<Exercise> exerciseList;
     // private JTextArea exerciseLogTextArea;
     private JButton addExerciseButton;
     private JButton deleteLogButton;
-    private DefaultListModel<String> foodLogListModel;
-    private JList<String> foodLogList;
+    private DefaultListModel<Log> foodLogListModel;
+    private JList<Log> foodLogList;
 
-    private DefaultListModel<String> exerciseLogListModel;
-    private JList<String> exerciseLogList;
+    private DefaultListModel<ExerciseEntry> exerciseLogListModel;
+    private JList<ExerciseEntry> exerciseLogList;
+    private LocalDate logDate = LocalDate.now();
+    private double burnWeight;
     private JButton editExerciseButton;
+    private JProgressBar progressBar;
+    private Runnable firstPaintListener;
+    private final CatalogSearchPanel.IndexCache<Food> foodIndex = new CatalogSearchPanel.IndexCache<>(Food::getName);
+    private final CatalogSearchPanel.IndexCache<Exercise> exerciseIndex =
+            new CatalogSearchPanel.IndexCache<>(Exercise::getName);
 
     /**
      * The {@code View} class is responsible for creating and managing the graphical
@@ -71,23 +81,33 @@ public class View extends JFrame {
         setLayout(new BorderLayout());
 
         // Foods
-        foodListModel = new DefaultListModel<>();
+        // Catalog rows are formatted only when painted and have a fixed size, so large
+        // catalogs neither build a string per item nor measure every row
+        foodListModel = new CatalogListModel<>(Food::getName, this::formatFoodDetails);
         foodList = new JList<>(foodListModel);
         foodList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        foodList.setCellRenderer(foodListModel.renderer());
+        CatalogListModel.useFixedCellSize(foodList,
+                "Sample Food Name Of Some Length — 9999.9 cal | 999.9g fat | 999.9g carbs | 999.9g protein");
         JScrollPane foodScroll = new JScrollPane(foodList);
         foodScroll.setPreferredSize(new Dimension(400, 200));
         JPanel foodPanel = new JPanel(new BorderLayout());
-        foodPanel.add(new JLabel("Available Foods (Click to Select)"), BorderLayout.NORTH);
+        foodPanel.add(createCatalogHeader("Available Foods (Click to Select)", foodList, foodListModel),
+                BorderLayout.NORTH);
         foodPanel.add(foodScroll, BorderLayout.CENTER);
 
         // Exercises
-        exerciseListModel = new DefaultListModel<>();
+        exerciseListModel = new CatalogListModel<>(Exercise::getName,
+                ex -> ex.getName() + " — " + ex.getCaloriesPerKgPerHour() + " cal/kg/hr");
         exerciseList = new JList<>(exerciseListModel);
         exerciseList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        exerciseList.setCellRenderer(exerciseListModel.renderer());
+        CatalogListModel.useFixedCellSize(exerciseList, "Sample Exercise Name Of Some Length — 99.99 cal/kg/hr");
         JScrollPane exerciseScroll = new JScrollPane(exerciseList);
         exerciseScroll.setPreferredSize(new Dimension(400, 150));
         JPanel exercisePanel = new JPanel(new BorderLayout());
-        exercisePanel.add(new JLabel("Available Exercises (Click to Select)"), BorderLayout.NORTH);
+        exercisePanel.add(createCatalogHeader("Available Exercises (Click to Select)", exerciseList,
+                exerciseListModel), BorderLayout.NORTH);
         exercisePanel.add(exerciseScroll, BorderLayout.CENTER);
 
         // Combine Foods + Exercises
@@ -145,12 +165,12 @@ public class View extends JFrame {
         statsPanel.add(setGoalsButton);
 
         // Pie chart setup
+        // Value changes are batched into one redraw per frame; between changes the panel
+        // repaints from its buffered image
         pieDataset = new DefaultPieDataset();
-        pieDataset.setValue("Fat", 0);
-        pieDataset.setValue("Carbs", 0);
-        pieDataset.setValue("Protein", 0);
+        pieUpdater = new PieChartUpdater(pieDataset, "Fat", "Carbs", "Protein");
         JFreeChart chart = ChartFactory.createPieChart("Nutrient Distribution", pieDataset, true, true, false);
-        pieChartPanel = new ChartPanel(chart);
+        pieChartPanel = new ChartPanel(chart, true);
         pieChartPanel.setPreferredSize(new Dimension(300, 200));
 
         JPanel chartAndStatsPanel = new JPanel(new GridLayout(1, 2));
@@ -167,12 +187,31 @@ public class View extends JFrame {
         topRightPanel.add(dateAndDeletePanel, BorderLayout.CENTER);
 
         // Food and Exercise Logs
+        // The log lists hold entry objects; each row's text is formatted only when painted
         foodLogListModel = new DefaultListModel<>();
         foodLogList = new JList<>(foodLogListModel);
         foodLogList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        foodLogList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                String text = String.format("[%s] %s", logDate, value);
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
         exerciseLogListModel = new DefaultListModel<>();
         exerciseLogList = new JList<>(exerciseLogListModel);
         exerciseLogList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        exerciseLogList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                ExerciseEntry entry = (ExerciseEntry) value;
+                String text = String.format("[%s] %s — %.0f min — %.0f cal burned", logDate,
+                        entry.getExercise().getName(), entry.getMinutes(), entry.calculateCaloriesBurned(burnWeight));
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
 
         JPanel foodLogPanel = new JPanel(new BorderLayout());
         currentDateLabel = new JLabel("Date: " + LocalDate.now());
@@ -196,6 +235,65 @@ public class View extends JFrame {
         centerPanel.add(rightPanel);
 
         add(centerPanel, BorderLayout.CENTER);
+
+        // Progress of background loading, hidden when idle
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        add(progressBar, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Sets a task to run once, right after the window is painted for the first time.
+     *
+     * @param listener the task to run on the event thread
+     */
+    public void setFirstPaintListener(Runnable listener) {
+        firstPaintListener = listener;
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (firstPaintListener != null) {
+            Runnable listener = firstPaintListener;
+            firstPaintListener = null;
+            listener.run();
+        }
+    }
+
+    /**
+     * Shows the progress bar with a message describing the work in progress.
+     *
+     * @param message the message to display
+     */
+    public void showProgress(String message) {
+        progressBar.setString(message);
+        progressBar.setVisible(true);
+    }
+
+    /**
+     * Hides the progress bar.
+     */
+    public void hideProgress() {
+        progressBar.setVisible(false);
+    }
+
+    /**
+     * Enables or disables the buttons that change or navigate the data, so nothing
+     * can be edited while it is still loading.
+     *
+     * @param enabled true to allow editing
+     */
+    public void setEditingEnabled(boolean enabled) {
+        addLogButton.setEnabled(enabled);
+        addFoodButton.setEnabled(enabled);
+        addExerciseButton.setEnabled(enabled);
+        setGoalsButton.setEnabled(enabled);
+        changeDateButton.setEnabled(enabled);
+        deleteLogButton.setEnabled(enabled);
+        editExerciseButton.setEnabled(enabled);
     }
 
     /**
@@ -214,9 +312,7 @@ public class View extends JFrame {
         carbsLabel.setText("Carbs: " + carbs + "g");
         proteinLabel.setText("Protein: " + protein + "g");
 
-        pieDataset.setValue("Fat", fat);
-        pieDataset.setValue("Carbs", carbs);
-        pieDataset.setValue("Protein", protein);
+        pieUpdater.setValues(fat, carbs, protein);
     }
 
     /**
@@ -270,11 +366,48 @@ public class View extends JFrame {
      * @param foods the list of Food objects to display
      */
     public void updateFoodList(List<Food> foods) {
-        foodListModel.clear();
-        for (Food food : foods) {
-            String display = formatFoodDetails(food);
-            foodListModel.addElement(display);
-        }
+        foodListModel.setItems(foods);
+        foodIndex.get(foods); // Index in the background so the first search is quick
+    }
+
+    /**
+     * Creates the title row of a catalog list with a field that filters the list by name.
+     *
+     * @param title the title of the list
+     * @param list  the list to filter
+     * @param model the model of the list
+     * @return the panel holding the title and filter field
+     */
+    private JPanel createCatalogHeader(String title, JList<?> list, CatalogListModel<?> model) {
+        JTextField filterField = new JTextField(12);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterChanged();
+            }
+
+            private void filterChanged() {
+                list.clearSelection();
+                model.setFilter(filterField.getText());
+            }
+        });
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(new JLabel(title), BorderLayout.WEST);
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        filterPanel.add(new JLabel("Filter:"));
+        filterPanel.add(filterField);
+        header.add(filterPanel, BorderLayout.EAST);
+        return header;
     }
 
     /**
@@ -294,14 +427,73 @@ public class View extends JFrame {
     }
 
     /**
-     * Replaces the content of the log display area.
+     * Replaces the food and exercise logs shown, for example after the date changed.
      *
-     * @param content the text to display in the log section
+     * @param date         the date the logs belong to
+     * @param foodLogs     the food logs of the date
+     * @param exerciseLogs the exercise entries of the date
+     * @param weight       the weight in effect on the date, for calories burned
      */
-    public void updateLogList(String text) {
+    public void showLogs(LocalDate date, List<Log> foodLogs, List<ExerciseEntry> exerciseLogs, double weight) {
+        logDate = date;
+        burnWeight = weight;
         foodLogListModel.clear();
-        for (String line : text.split("\n")) {
-            foodLogListModel.addElement(line);
+        foodLogListModel.addAll(foodLogs);
+        exerciseLogListModel.clear();
+        exerciseLogListModel.addAll(exerciseLogs);
+    }
+
+    /**
+     * Inserts one food log into the list shown.
+     *
+     * @param index the position of the log among the food logs of the date
+     * @param log   the food log
+     */
+    public void addFoodLog(int index, Log log) {
+        foodLogListModel.add(index, log);
+    }
+
+    /**
+     * Removes one food log from the list shown.
+     *
+     * @param index the position the log had among the food logs of the date
+     */
+    public void removeFoodLog(int index) {
+        foodLogListModel.remove(index);
+    }
+
+    /**
+     * Inserts one exercise entry into the list shown.
+     *
+     * @param index the position of the entry among the exercise entries of the date
+     * @param entry the exercise entry
+     */
+    public void addExerciseLog(int index, ExerciseEntry entry) {
+        exerciseLogListModel.add(index, entry);
+    }
+
+    /**
+     * Removes one exercise entry from the list shown.
+     *
+     * @param index the position the entry had among the exercise entries of the date
+     */
+    public void removeExerciseLog(int index) {
+        exerciseLogListModel.remove(index);
+    }
+
+    /**
+     * Changes the weight used for the calories burned shown with each exercise entry,
+     * redrawing the entries only if it differs.
+     *
+     * @param weight the weight in effect on the date shown
+     */
+    public void setBurnWeight(double weight) {
+        if (weight == burnWeight) {
+            return;
+        }
+        burnWeight = weight;
+        for (int i = 0; i < exerciseLogListModel.size(); i++) {
+            exerciseLogListModel.set(i, exerciseLogListModel.get(i));
         }
     }
 
@@ -657,10 +849,8 @@ public class View extends JFrame {
      * @param exercises the list of Exercise objects to display
      */
     public void updateExerciseList(List<Exercise> exercises) {
-        exerciseListModel.clear(); // Assuming you're using a DefaultListModel
-        for (Exercise ex : exercises) {
-            exerciseListModel.addElement(ex.getName() + " — " + ex.getCaloriesPerKgPerHour() + " cal/kg/hr");
-        }
+        exerciseListModel.setItems(exercises);
+        exerciseIndex.get(exercises);
     }
 
     /**
@@ -673,20 +863,6 @@ public class View extends JFrame {
         addExerciseButton.addActionListener(listener);
     }
 
-    /**
-     * Updates the exercise log list displayed in the view.
-     * Splits the provided text by lines and adds each line as an entry.
-     *
-     * @param text the exercise log entries as a single string, separated by
-     *             newlines
-     */
-    public void updateExerciseLogList(String text) {
-        exerciseLogListModel.clear();
-        for (String line : text.split("\n")) {
-            exerciseLogListModel.addElement(line);
-        }
-    }
-
     /**
      * Updates the displayed calorie goal and remaining calories labels in the view.
      *
@@ -721,9 +897,7 @@ public class View extends JFrame {
         fatLabel.setText("Calories Burned (Exercise): " + burned);
         proteinLabel.setText("Net Calories: " + net);
         carbsLabel.setText("Goal Difference: " + difference);
-        pieDataset.setValue("Fat", fat); // Use the current fat, carbs, protein values
-        pieDataset.setValue("Carbs", carbs);
-        pieDataset.setValue("Protein", protein);
+        pieUpdater.setValues(fat, carbs, protein); // Use the current fat, carbs, protein values
 
         // Optional: color feedback for goal difference
         if (difference < 0) {
@@ -746,18 +920,18 @@ public class View extends JFrame {
     /**
      * Returns the currently selected food log entry from the food log list.
      *
-     * @return the selected food log entry as a string, or null if none selected
+     * @return the selected food log, or null if none selected
      */
-    public String getSelectedFoodLog() {
+    public Log getSelectedFoodLog() {
         return foodLogList.getSelectedValue();
     }
 
     /**
      * Returns the currently selected exercise log entry from the exercise log list.
      *
-     * @return the selected exercise log entry as a string, or null if none selected
+     * @return the selected exercise entry, or null if none selected
      */
-    public String getSelectedExerciseLog() {
+    public ExerciseEntry getSelectedExerciseLog() {
         return exerciseLogList.getSelectedValue();
     }
 
@@ -826,30 +1000,75 @@ public class View extends JFrame {
 
     /**
      * Prompts the user to select a food item from the provided list using a
-     * dropdown dialog.
+     * type-ahead search dialog.
      *
      * @param foods the list of Food objects to choose from
      * @return the selected Food object, or null if canceled
      */
     public Food promptForFoodSelection(List<Food> foods) {
-        Food[] foodArray = foods.toArray(new Food[0]);
-        Food selected = (Food) JOptionPane.showInputDialog(this, "Select a food:", "Food Selection",
-                JOptionPane.PLAIN_MESSAGE, null, foodArray, foodArray[0]);
-        return selected;
+        CatalogSearchPanel<Food> search = createFoodSearch(foods, "Select a food:");
+        boolean confirmed = confirmSearch(search, "Food Selection", JOptionPane.PLAIN_MESSAGE, search);
+        return confirmed ? search.getSelected() : null;
     }
 
     /**
      * Prompts the user to select an exercise from the provided list using a
-     * dropdown dialog.
+     * type-ahead search dialog.
      *
      * @param exercises the list of Exercise objects to choose from
      * @return the selected Exercise object, or null if canceled
      */
     public Exercise promptForExerciseSelection(List<Exercise> exercises) {
-        Exercise[] exerciseArray = exercises.toArray(new Exercise[0]);
-        Exercise selected = (Exercise) JOptionPane.showInputDialog(this, "Select an exercise:", "Exercise Selection",
-                JOptionPane.PLAIN_MESSAGE, null, exerciseArray, exerciseArray[0]);
-        return selected;
+        CatalogSearchPanel<Exercise> search = createExerciseSearch(exercises, "Select an exercise:");
+        boolean confirmed = confirmSearch(search, "Exercise Selection", JOptionPane.PLAIN_MESSAGE, search);
+        return confirmed ? search.getSelected() : null;
+    }
+
+    /**
+     * Shows an OK/Cancel dialog holding a catalog search. The OK button is enabled only
+     * while the search lists the matches of the text typed.
+     *
+     * @param message     the dialog content, holding the search
+     * @param title       the dialog title
+     * @param messageType the JOptionPane message type
+     * @param search      the search whose matches are chosen from
+     * @return true if the user pressed OK
+     */
+    private boolean confirmSearch(Object message, String title, int messageType, CatalogSearchPanel<?> search) {
+        JButton okButton = new JButton(UIManager.getString("OptionPane.okButtonText"));
+        JButton cancelButton = new JButton(UIManager.getString("OptionPane.cancelButtonText"));
+        JOptionPane pane = new JOptionPane(message, messageType, JOptionPane.OK_CANCEL_OPTION, null,
+                new Object[] { okButton, cancelButton }, okButton);
+        okButton.addActionListener(e -> pane.setValue(okButton));
+        cancelButton.addActionListener(e -> pane.setValue(cancelButton));
+        search.setConfirmButton(okButton);
+
+        JDialog dialog = pane.createDialog(this, title);
+        dialog.setVisible(true);
+        dialog.dispose();
+        return pane.getValue() == okButton;
+    }
+
+    /**
+     * Creates a type-ahead search over the food catalog for a selection dialog.
+     *
+     * @param foods the foods to choose from
+     * @param label the label shown above the search field
+     * @return the search panel
+     */
+    private CatalogSearchPanel<Food> createFoodSearch(List<Food> foods, String label) {
+        return new CatalogSearchPanel<>(foodIndex, foods, foodListModel::format, label);
+    }
+
+    /**
+     * Creates a type-ahead search over the exercise catalog for a selection dialog.
+     *
+     * @param exercises the exercises to choose from
+     * @param label     the label shown above the search field
+     * @return the search panel
+     */
+    private CatalogSearchPanel<Exercise> createExerciseSearch(List<Exercise> exercises, String label) {
+        return new CatalogSearchPanel<>(exerciseIndex, exercises, exerciseListModel::format, label);
     }
 
     /**
@@ -862,21 +1081,23 @@ public class View extends JFrame {
      *         or null if canceled or input is invalid
      */
     public Object[] promptForFoodAndServings(List<Food> foods) {
-        JComboBox<Food> foodDropdown = new JComboBox<>(foods.toArray(new Food[0]));
+        CatalogSearchPanel<Food> foodSearch = createFoodSearch(foods, "Search food:");
         JTextField servingsField = new JTextField();
 
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.add(new JLabel("Select food:"));
-        panel.add(foodDropdown);
+        panel.add(foodSearch);
         panel.add(Box.createVerticalStrut(10));
         panel.add(new JLabel("Enter servings:"));
         panel.add(servingsField);
 
-        int result = JOptionPane.showConfirmDialog(this, panel, "Log Food", JOptionPane.OK_CANCEL_OPTION);
-        if (result == JOptionPane.OK_OPTION) {
+        if (confirmSearch(panel, "Log Food", JOptionPane.QUESTION_MESSAGE, foodSearch)) {
             try {
-                Food selectedFood = (Food) foodDropdown.getSelectedItem();
+                Food selectedFood = foodSearch.getSelected();
+                if (selectedFood == null) {
+                    showMessage("No food selected.");
+                    return null;
+                }
                 double servings = Double.parseDouble(servingsField.getText().trim());
                 return new Object[] { selectedFood, servings };
             } catch (NumberFormatException e) {
@@ -896,21 +1117,23 @@ public class View extends JFrame {
      *         or null if canceled or input is invalid
      */
     public Object[] promptForExerciseAndMinutes(List<Exercise> exercises) {
-        JComboBox<Exercise> exerciseDropdown = new JComboBox<>(exercises.toArray(new Exercise[0]));
+        CatalogSearchPanel<Exercise> exerciseSearch = createExerciseSearch(exercises, "Search exercise:");
         JTextField minutesField = new JTextField();
 
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.add(new JLabel("Select exercise:"));
-        panel.add(exerciseDropdown);
+        panel.add(exerciseSearch);
         panel.add(Box.createVerticalStrut(10));
         panel.add(new JLabel("Enter minutes:"));
         panel.add(minutesField);
 
-        int result = JOptionPane.showConfirmDialog(this, panel, "Log Exercise", JOptionPane.OK_CANCEL_OPTION);
-        if (result == JOptionPane.OK_OPTION) {
+        if (confirmSearch(panel, "Log Exercise", JOptionPane.QUESTION_MESSAGE, exerciseSearch)) {
             try {
-                Exercise selectedExercise = (Exercise) exerciseDropdown.getSelectedItem();
+                Exercise selectedExercise = exerciseSearch.getSelected();
+                if (selectedExercise == null) {
+                    showMessage("No exercise selected.");
+                    return null;
+                }
                 double minutes = Double.parseDouble(minutesField.getText().trim());
                 return new Object[] { selectedExercise, minutes };
             } catch (NumberFormatException e) {
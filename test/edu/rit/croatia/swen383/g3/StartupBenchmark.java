@@ -0,0 +1,139 @@
+package edu.rit.croatia.swen383.g3;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures time to first paint and time to interactive by starting the application in a
+ * fresh JVM several times. Each run is timed by {@link edu.rit.croatia.swen383.g3.util.StartupTimer}
+ * and stopped as soon as it prints its times; the minimum, median and maximum of each time
+ * are reported, counted from the launch of the JVM.
+ * <p>
+ * Usage: {@code StartupBenchmark [<runs>]}, 10 runs by default. {@code dietmanager.*} system
+ * properties given to the benchmark are passed on to the application, so for example
+ * {@code -Ddietmanager.storage=binary} benchmarks the binary log store. Needs a display.
+ */
+public class StartupBenchmark {
+    private static final long RUN_TIMEOUT_SECONDS = 120;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of runs, optional
+     */
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        List<long[]> times = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            try {
+                long[] time = launch();
+                if (time == null) {
+                    System.out.println("Run " + run + " did not report startup times");
+                    continue;
+                }
+                System.out.println("Run " + run + ": first paint " + time[1] + " ms, interactive " + time[2] + " ms");
+                times.add(time);
+            } catch (IOException e) {
+                System.out.println("Error starting the application: " + e.getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (times.isEmpty()) {
+            return;
+        }
+        report("JVM start to main", times, 0);
+        report("time to first paint", times, 1);
+        report("time to interactive", times, 2);
+    }
+
+    /**
+     * Starts the application once, reads the times it prints and stops it.
+     *
+     * @return the JVM, first paint and interactive times in milliseconds, or null if the run
+     *         did not report them
+     */
+    private static long[] launch() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+            String key = property.getKey().toString();
+            if (key.startsWith("dietmanager.")) {
+                command.add("-D" + key + "=" + property.getValue());
+            }
+        }
+        command.add("-Ddietmanager.startupTiming=true");
+        command.add(Main.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            // Read on another thread, so a run that hangs without printing can still time out
+            CompletableFuture<String> timing = CompletableFuture.supplyAsync(() -> readTiming(process));
+            String line = timing.get(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return line == null ? null : parse(line);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            // A normal stop lets the application's shutdown hook finish pending saves
+            process.destroy();
+            if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Reads the output of a run until its timing line.
+     *
+     * @return the timing line, or null if the run ended without printing it
+     */
+    private static String readTiming(Process process) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("startup ")) {
+                    return line;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses {@code startup jvmMillis=a firstPaintMillis=b interactiveMillis=c}.
+     */
+    private static long[] parse(String line) {
+        String[] fields = line.split(" ");
+        long[] time = new long[3];
+        for (int i = 0; i < time.length; i++) {
+            time[i] = Long.parseLong(fields[i + 1].substring(fields[i + 1].indexOf('=') + 1));
+        }
+        return time;
+    }
+
+    private static void report(String name, List<long[]> times, int field) {
+        long[] values = times.stream().mapToLong(time -> time[field]).toArray();
+        Arrays.sort(values);
+        System.out.printf("%-20s min %5d ms, median %5d ms, max %5d ms%n", name, values[0],
+                values[values.length / 2], values[values.length - 1]);
+    }
+}
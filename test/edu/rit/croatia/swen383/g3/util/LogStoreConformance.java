@@ -0,0 +1,318 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same cases against every {@link LogStore} backend: a full round trip, reading
+ * months, reading from a month, saving with only some months loaded, writing and deleting
+ * single dates, saving while single dates are written from other threads, and creating the
+ * store from {@code log.csv} through {@link StorageConfig}.
+ * Each case starts from an empty store in its own directory, and compares what is read
+ * back with the expected entries in the order {@link FileHandler#formatLogs(Logs)} writes
+ * them.
+ * <p>
+ * Usage: {@code LogStoreConformance [<directory>]}. The stores are created under the given
+ * directory, or a temporary one that is removed when every case passes. Exits with status 1
+ * if any case fails.
+ */
+public class LogStoreConformance {
+    private static final YearMonth JANUARY = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2024, 2);
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    private final Path root;
+    private final FileHandler fileHandler = new FileHandler();
+    private final List<Food> foods = new ArrayList<>();
+    private final Exercises exercises = new Exercises();
+    private final List<Entry> sample;
+    private int failures;
+
+    /**
+     * Creates the suite, keeping the stores under the given directory.
+     *
+     * @param root the directory to create the stores in
+     */
+    public LogStoreConformance(Path root) {
+        this.root = root;
+        foods.add(new BasicFood("Apple", 95, 0.3, 25, 0.5));
+        foods.add(new BasicFood("Toast, buttered", 180, 7, 24, 4));
+        exercises.addExercise(new Exercise("Running", 9.8));
+        exercises.addExercise(new Exercise("Rowing", 7));
+        sample = List.of(
+                new Entry(LocalDate.of(2024, 1, 1), 'w', null, 70),
+                new Entry(LocalDate.of(2024, 1, 1), 'c', null, 2000),
+                new Entry(LocalDate.of(2024, 1, 5), 'f', "Apple", 1.5),
+                new Entry(LocalDate.of(2024, 1, 5), 'e', "Running", 30),
+                new Entry(LocalDate.of(2024, 1, 20), 'f', "Toast, buttered", 2),
+                new Entry(LocalDate.of(2024, 2, 10), 'f', "Apple", 1),
+                new Entry(LocalDate.of(2024, 2, 10), 'f', "Apple", 0.5),
+                new Entry(LocalDate.of(2024, 2, 10), 'e', "Rowing", 45),
+                new Entry(LocalDate.of(2024, 2, 15), 'w', null, 71.5),
+                new Entry(LocalDate.of(2024, 3, 1), 'f', "Toast, buttered", 1),
+                new Entry(LocalDate.of(2024, 3, 1), 'c', null, 1800),
+                new Entry(LocalDate.of(2024, 3, 31), 'e', "Running", 20));
+    }
+
+    /**
+     * Runs every case against every backend.
+     *
+     * @return the number of failed cases
+     * @throws IOException if a store directory cannot be created
+     */
+    public int run() throws IOException {
+        for (String backend : List.of(StorageConfig.CSV, StorageConfig.PARTITIONED, StorageConfig.BINARY)) {
+            roundTrip(backend);
+            readMonths(backend);
+            readFrom(backend);
+            partialSave(backend);
+            emptiedMonth(backend);
+            writeDay(backend);
+            deleteDay(backend);
+            concurrentWrites(backend);
+            createFromCsv(backend);
+        }
+        return failures;
+    }
+
+    private void roundTrip(String backend) throws IOException {
+        LogStore store = saved(backend, "roundTrip");
+        check(backend, "round trip", sample, readAll(store));
+    }
+
+    private void readMonths(String backend) throws IOException {
+        LogStore store = saved(backend, "readMonths");
+        Logs logs = new Logs();
+        store.readMonths(Set.of(FEBRUARY, MARCH), foods, exercises, logs);
+        check(backend, "read months", select(entry -> entry.isEntry()
+                && !YearMonth.from(entry.date()).equals(JANUARY)), logs);
+    }
+
+    private void readFrom(String backend) throws IOException {
+        LogStore store = saved(backend, "readFrom");
+        Logs logs = new Logs();
+        Set<YearMonth> months = Collections.synchronizedSet(new TreeSet<>());
+        store.readFrom(FEBRUARY, foods, exercises, logs, months::add);
+        check(backend, "read from a month", select(entry -> !entry.isEntry()
+                || !YearMonth.from(entry.date()).isBefore(FEBRUARY)), logs);
+        check(backend, "read from a month lists every month", Set.of(JANUARY, FEBRUARY, MARCH), months);
+    }
+
+    private void partialSave(String backend) throws IOException {
+        LogStore store = saved(backend, "partialSave");
+        Entry added = new Entry(LocalDate.of(2024, 3, 2), 'f', "Apple", 3);
+        List<Entry> march = select(entry -> !entry.isEntry() || YearMonth.from(entry.date()).equals(MARCH));
+        march.add(added);
+        store.prepareWrite(toLogs(march), Set.of(MARCH), true, Set.of(MARCH)).run();
+        List<Entry> expected = new ArrayList<>(sample);
+        expected.add(added);
+        check(backend, "save with one month loaded keeps the others", expected, readAll(store));
+    }
+
+    private void emptiedMonth(String backend) throws IOException {
+        LogStore store = saved(backend, "emptiedMonth");
+        store.prepareWrite(toLogs(select(entry -> !entry.isEntry())), Set.of(FEBRUARY), false, Set.of(FEBRUARY))
+                .run();
+        check(backend, "save removes an emptied month",
+                select(entry -> !entry.isEntry() || !YearMonth.from(entry.date()).equals(FEBRUARY)), readAll(store));
+        check(backend, "emptied month is no longer listed", Set.of(JANUARY, MARCH), months(store));
+    }
+
+    private void writeDay(String backend) throws IOException {
+        LogStore store = saved(backend, "writeDay");
+        LocalDate replaced = LocalDate.of(2024, 2, 10);
+        LocalDate added = LocalDate.of(2024, 4, 2);
+        store.writeDay(replaced, List.of(new Log(replaced, food("Toast, buttered"), 1)),
+                List.of(new ExerciseEntry(exercises.findExerciseByName("Running"), 10)));
+        store.writeDay(added, List.of(new Log(added, food("Apple"), 2)), List.of());
+
+        List<Entry> expected = select(entry -> !entry.isEntry() || !entry.date().equals(replaced));
+        expected.add(new Entry(replaced, 'f', "Toast, buttered", 1));
+        expected.add(new Entry(replaced, 'e', "Running", 10));
+        expected.add(new Entry(added, 'f', "Apple", 2));
+        check(backend, "point write replaces one date", expected, readAll(store));
+        check(backend, "point write adds a month", Set.of(JANUARY, FEBRUARY, MARCH, YearMonth.of(2024, 4)),
+                months(store));
+    }
+
+    private void deleteDay(String backend) throws IOException {
+        LogStore store = saved(backend, "deleteDay");
+        store.deleteDay(LocalDate.of(2024, 1, 20));
+        store.deleteDay(LocalDate.of(2024, 3, 1));
+        store.deleteDay(LocalDate.of(2024, 3, 31));
+        store.deleteDay(LocalDate.of(2024, 5, 1));
+        check(backend, "point delete removes dates and keeps the series",
+                select(entry -> !entry.isEntry() || entry.date().isBefore(LocalDate.of(2024, 1, 20))
+                        || YearMonth.from(entry.date()).equals(FEBRUARY)), readAll(store));
+        check(backend, "point delete drops an emptied month", Set.of(JANUARY, FEBRUARY), months(store));
+    }
+
+    /**
+     * Runs saves of one month and point writes of other dates on several threads at once, as
+     * the writer thread and a caller of {@link LogStore#writeDay} would. Every write must land.
+     */
+    private void concurrentWrites(String backend) throws IOException {
+        LogStore store = saved(backend, "concurrentWrites");
+        Logs march = toLogs(select(entry -> !entry.isEntry() || YearMonth.from(entry.date()).equals(MARCH)));
+        List<Entry> expected = new ArrayList<>(sample);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            LocalDate date = LocalDate.of(2024, 6, i);
+            double servings = i;
+            expected.add(new Entry(date, 'f', "Apple", servings));
+            writes.add(threads.submit(() -> store.prepareWrite(march, Set.of(MARCH), true, Set.of(MARCH)).run()));
+            writes.add(threads.submit(() -> store.writeDay(date, List.of(new Log(date, food("Apple"), servings)),
+                    List.of())));
+        }
+        try {
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            threads.shutdown();
+        }
+        check(backend, "saves and point writes from several threads", expected, readAll(store));
+    }
+
+    /**
+     * Creates the store from {@code log.csv} as the application does, with a line naming a
+     * food missing from the catalog, and checks the line survives a save of another month.
+     */
+    private void createFromCsv(String backend) throws IOException {
+        Path directory = directory(backend, "createFromCsv");
+        List<String> lines = new ArrayList<>(fileHandler.formatLogs(toLogs(sample)));
+        lines.add(1, "2024,01,01,f,Unknown food,1.0");
+        Files.write(directory.resolve("log.csv"), lines);
+        LogStore store = new StorageConfig(directory.toString(), backend, fileHandler).createLogStore();
+
+        Logs all = new Logs();
+        LogLoadReport report = store.readAll(foods, exercises, all);
+        check(backend, "created from log.csv", sample, all);
+        check(backend, "created from log.csv reports the unknown food", Map.of("Unknown food", 1),
+                report.getUnresolvedFoods());
+
+        Logs march = new Logs();
+        store.readFrom(MARCH, foods, exercises, march, month -> { });
+        store.prepareWrite(march, Set.of(MARCH), false, Set.of(MARCH)).run();
+        report = store.readAll(foods, exercises, new Logs());
+        check(backend, "unknown food survives a save of another month", Map.of("Unknown food", 1),
+                report.getUnresolvedFoods());
+    }
+
+    /**
+     * Creates a store in a new directory and saves the sample to it.
+     */
+    private LogStore saved(String backend, String name) throws IOException {
+        Path directory = directory(backend, name);
+        LogStore store = switch (backend) {
+            case StorageConfig.PARTITIONED -> new PartitionedLogStore(directory.resolve("logs").toString(),
+                    fileHandler);
+            case StorageConfig.BINARY -> new BinaryLogStore(directory.resolve("log.bin").toString(), fileHandler);
+            default -> new CsvLogStore(directory.resolve("log.csv").toString(), fileHandler);
+        };
+        store.prepareWrite(toLogs(sample), Set.of(JANUARY, FEBRUARY, MARCH), true, null).run();
+        return store;
+    }
+
+    private Path directory(String backend, String name) throws IOException {
+        return Files.createDirectories(root.resolve(backend).resolve(name));
+    }
+
+    private Logs readAll(LogStore store) {
+        Logs logs = new Logs();
+        store.readAll(foods, exercises, logs);
+        return logs;
+    }
+
+    private Set<YearMonth> months(LogStore store) {
+        Set<YearMonth> months = Collections.synchronizedSet(new TreeSet<>());
+        store.readFrom(YearMonth.of(9999, 12), foods, exercises, new Logs(), months::add);
+        return months;
+    }
+
+    private List<Entry> select(Predicate<Entry> keep) {
+        return sample.stream().filter(keep).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private Logs toLogs(List<Entry> entries) {
+        Logs logs = new Logs();
+        for (Entry entry : entries) {
+            switch (entry.type()) {
+                case 'f' -> logs.addLog(new Log(entry.date(), food(entry.name()), entry.value()));
+                case 'e' -> logs.addExerciseLog(entry.date(),
+                        new ExerciseEntry(exercises.findExerciseByName(entry.name()), entry.value()));
+                case 'w' -> logs.setWeightForDate(entry.date(), entry.value());
+                default -> logs.setCalorieGoalForDate(entry.date(), entry.value());
+            }
+        }
+        return logs;
+    }
+
+    private Food food(String name) {
+        return foods.stream().filter(food -> food.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private void check(String backend, String name, List<Entry> expected, Logs actual) {
+        check(backend, name, fileHandler.formatLogs(toLogs(expected)), fileHandler.formatLogs(actual));
+    }
+
+    private void check(String backend, String name, Object expected, Object actual) {
+        if (expected.equals(actual)) {
+            System.out.println("PASS " + backend + ": " + name);
+        } else {
+            failures++;
+            System.out.println("FAIL " + backend + ": " + name + "\n  expected " + expected + "\n  actual   " + actual);
+        }
+    }
+
+    /**
+     * One entry of the sample: a food or exercise with its servings or minutes, or a weight
+     * or calorie goal with its value.
+     */
+    private record Entry(LocalDate date, char type, String name, double value) {
+        boolean isEntry() {
+            return type == 'f' || type == 'e';
+        }
+    }
+
+    /**
+     * Runs the suite.
+     *
+     * @param args an optional directory to create the stores in
+     */
+    public static void main(String[] args) {
+        try {
+            Path root = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("logstore-conformance");
+            int failed = new LogStoreConformance(root).run();
+            System.out.println(failed == 0 ? "All log store cases passed" : failed + " log store cases failed");
+            if (failed == 0 && args.length == 0) {
+                try (Stream<Path> paths = Files.walk(root)) {
+                    paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            }
+            if (failed > 0) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.out.println("Error running log store cases: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
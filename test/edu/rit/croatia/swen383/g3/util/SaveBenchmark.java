@@ -0,0 +1,108 @@
+package edu.rit.croatia.swen383.g3.util;
+
+import edu.rit.croatia.swen383.g3.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Measures saves per second under a burst of log entries, each entry followed by a save as
+ * the add button does. Compares three modes on the same CSV log:
+ * <ul>
+ *   <li>durable saves written one by one on the calling thread, each forcing its files</li>
+ *   <li>durable saves through {@link PersistenceService}, which coalesces the burst into
+ *       a few forced writes</li>
+ *   <li>non-durable saves through {@link PersistenceService}, for reference</li>
+ * </ul>
+ * The timed span runs from the first entry until the last save is on disk.
+ * <p>
+ * Usage: {@code SaveBenchmark [<saves> [<directory>]]}; by default 200 saves in a
+ * temporary directory. Each mode starts from a log of {@value #EXISTING_ENTRIES} entries.
+ */
+public class SaveBenchmark {
+    private static final int EXISTING_ENTRIES = 2000;
+
+    private final Path directory;
+    private final List<Food> foods = List.of(new BasicFood("Apple", 95, 0.3, 25, 0.5));
+    private final Exercises exercises = new Exercises();
+
+    /**
+     * Creates the benchmark, keeping its log files in the given directory.
+     *
+     * @param directory the directory for the log files
+     */
+    public SaveBenchmark(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Adds entries one at a time, saving after each, and waits until everything is on disk.
+     *
+     * @param name        the name of the mode, used for the log file
+     * @param saves       the number of entries to add and save
+     * @param durable     true to force every write to disk
+     * @param persistence the service to save through, or null to save on the calling thread
+     * @return the saves per second
+     * @throws IOException if the log file cannot be created
+     */
+    public double run(String name, int saves, boolean durable, PersistenceService persistence) throws IOException {
+        FileHandler fileHandler = new FileHandler();
+        fileHandler.setDurableWrites(false);
+        Path logFile = directory.resolve(name + ".csv");
+        Logs seed = new Logs();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < EXISTING_ENTRIES; i++) {
+            seed.addLog(new Log(start.plusDays(i / 2), foods.get(0), 1));
+        }
+        fileHandler.writeLogs(logFile.toString(), seed);
+
+        fileHandler.setDurableWrites(durable);
+        Logs logs = new Logs();
+        logs.load(new CsvLogStore(logFile.toString(), fileHandler), foods, exercises);
+        logs.setPersistenceService(persistence);
+        LocalDate today = start.plusDays(EXISTING_ENTRIES / 2);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < saves; i++) {
+            logs.addLog(new Log(today, foods.get(0), i + 1));
+            logs.save();
+        }
+        if (persistence != null) {
+            persistence.flush();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return saves / seconds;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of saves and the directory for the log files, both optional
+     */
+    public static void main(String[] args) {
+        try {
+            int saves = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+            Path directory = args.length > 1 ? Files.createDirectories(Paths.get(args[1]))
+                    : Files.createTempDirectory("save-benchmark");
+            SaveBenchmark benchmark = new SaveBenchmark(directory);
+            // Warm up the code paths so the first timed mode is not charged for class loading
+            benchmark.run("warmup", 20, false, null);
+
+            System.out.printf("durable, one write per save:    %8.1f saves/s%n",
+                    benchmark.run("durable-each", saves, true, null));
+            PersistenceService persistence = new PersistenceService();
+            System.out.printf("durable, coalesced:             %8.1f saves/s%n",
+                    benchmark.run("durable-coalesced", saves, true, persistence));
+            System.out.printf("not durable, coalesced:         %8.1f saves/s%n",
+                    benchmark.run("coalesced", saves, false, persistence));
+            persistence.shutdown();
+            System.out.println("Log files are in " + directory);
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error running save benchmark: " + e.getMessage());
+        }
+    }
+}
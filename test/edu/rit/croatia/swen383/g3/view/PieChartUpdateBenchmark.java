@@ -0,0 +1,123 @@
+package edu.rit.croatia.swen383.g3.view;
+
+import org.jfree.data.general.DefaultPieDataset;
+
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the change events, and so the chart redraws, that a pie chart's dataset receives for
+ * the same stream of section values written two ways:
+ * <ul>
+ *   <li>directly, one {@code setValue} per section, as the stats panel did before
+ *       {@link PieChartUpdater}</li>
+ *   <li>through {@link PieChartUpdater#setValues}</li>
+ * </ul>
+ * Each stream is written once as a burst within one frame, as when several entries change
+ * together, and once spread out with a frame after every update. One update in five repeats
+ * the values already shown.
+ * <p>
+ * Usage: {@code PieChartUpdateBenchmark [<updates>]}, 100 updates by default. Needs no display.
+ */
+public class PieChartUpdateBenchmark {
+    private static final String[] KEYS = {"Fat", "Carbs", "Protein"};
+
+    private final int updates;
+
+    /**
+     * Creates the benchmark.
+     *
+     * @param updates the number of updates in each stream
+     */
+    public PieChartUpdateBenchmark(int updates) {
+        this.updates = updates;
+    }
+
+    /**
+     * Writes every update with one {@code setValue} per section.
+     *
+     * @return the number of change events
+     */
+    public int direct() {
+        DefaultPieDataset dataset = new DefaultPieDataset();
+        AtomicInteger events = new AtomicInteger();
+        dataset.addChangeListener(event -> events.incrementAndGet());
+        for (int i = 0; i < updates; i++) {
+            double[] values = values(i);
+            for (int k = 0; k < KEYS.length; k++) {
+                dataset.setValue(KEYS[k], values[k]);
+            }
+        }
+        return events.get();
+    }
+
+    /**
+     * Writes every update through a {@link PieChartUpdater}, on the event thread.
+     *
+     * @param spread true to let a frame pass after every update, false to write them as one burst
+     * @return the number of change events
+     * @throws InterruptedException if interrupted while waiting for the frame
+     */
+    public int throughUpdater(boolean spread) throws InterruptedException {
+        DefaultPieDataset dataset = new DefaultPieDataset();
+        AtomicInteger events = new AtomicInteger();
+        PieChartUpdater[] updater = new PieChartUpdater[1];
+        onEventThread(() -> {
+            updater[0] = new PieChartUpdater(dataset, KEYS);
+            // Count from here; creating the updater sets every section to zero once
+            dataset.addChangeListener(event -> events.incrementAndGet());
+            for (int i = 0; i < updates; i++) {
+                updater[0].setValues(values(i));
+                if (spread) {
+                    updater[0].flush(); // What the frame timer does when it fires
+                }
+            }
+        });
+        // Let the frame timer of the burst fire, then wait for it on the event thread
+        Thread.sleep(200);
+        onEventThread(() -> { });
+        return events.get();
+    }
+
+    /**
+     * Returns the section values of an update. Every fifth update repeats the one before.
+     */
+    private static double[] values(int update) {
+        int i = update % 5 == 4 ? update - 1 : update;
+        return new double[] {10 + i, 20 + i % 7, 30 + i % 3};
+    }
+
+    private static void onEventThread(Runnable task) throws InterruptedException {
+        try {
+            SwingUtilities.invokeAndWait(task);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void report(String name, int events) {
+        System.out.printf("%-34s %5d change events%n", name + ":", events);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of updates, optional
+     */
+    public static void main(String[] args) {
+        try {
+            int updates = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+            PieChartUpdateBenchmark benchmark = new PieChartUpdateBenchmark(updates);
+            int direct = benchmark.direct();
+            System.out.printf("%d updates of %d sections%n", updates, KEYS.length);
+            report("direct setValue, any pacing", direct);
+            report("PieChartUpdater, one burst", benchmark.throughUpdater(false));
+            report("PieChartUpdater, frame per update", benchmark.throughUpdater(true));
+        } catch (NumberFormatException e) {
+            System.out.println("Error running pie chart benchmark: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}